@@ -0,0 +1,133 @@
+package bench;
+
+import model.InHouse;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic Parts and Products for benchmarks and load tests.
+ * The same seed always generates the same catalog, so results can be compared between runs and machines.
+ *
+ * The catalog is skewed the way real ones are. Name words, suppliers and machines follow Zipf distributions,
+ * so a few of each are very common. Prices are spread over orders of magnitude. Most Products use a handful of
+ * Parts while a few use dozens, and a few common Parts are used by a large share of the Products.
+ *
+ * @author Zachary Mollenhour
+ */
+public class CatalogGenerator {
+    static final String[] PART_MODIFIERS = {"Hex", "Steel", "Flat", "Socket", "Brass", "Lock", "Nylon", "Spring",
+            "Alloy", "Thrust", "Ball", "Roller", "Carbon", "Drive", "Idler", "Sealed", "Threaded", "Heavy Duty",
+            "Miniature", "Stainless"};
+    static final String[] PART_KINDS = {"Bolt", "Nut", "Washer", "Screw", "Bearing", "Gear", "Bushing", "Spacer",
+            "Bracket", "Shaft", "Pulley", "Belt", "Gasket", "Seal", "Clamp", "Hinge", "Spindle", "Sprocket",
+            "Coupling", "Rivet", "Pin", "Valve", "Spoke", "Cable"};
+    static final String[] PRODUCT_WORDS = {"Bicycle", "Scooter", "Trailer", "Cart", "Wagon", "Tricycle", "Kart",
+            "Stroller", "Frame", "Wheel", "Drivetrain", "Brake", "Assembly", "Kit", "Deluxe", "Junior", "Pro",
+            "Touring", "Cargo", "Folding"};
+    static final String[] COMPANY_NAMES = {"Acme Fasteners", "Northwind Supply", "Globex Components",
+            "Initech Industrial", "Umbrella Bearings", "Stark Metalworks", "Wayne Precision", "Tyrell Tooling",
+            "Cyberdyne Parts", "Soylent Seals", "Vandelay Imports", "Hooli Hardware", "Oscorp Alloys",
+            "Wonka Gearworks", "Gringotts Metals", "Duff Drivetrains", "Monarch Springs", "Aperture Axles",
+            "Massive Dynamic", "Blue Sun Supply"};
+    private static final int MACHINES = 250;
+    private static final int FIRST_MACHINE_ID = 100;
+    private static final double IN_HOUSE_SHARE = 0.6;
+    // Higher exponents concentrate more of the Products' associations on the first Parts.
+    private static final double PART_POPULARITY = 3;
+    private final SplittableRandom random;
+    private final Zipf modifiers = new Zipf(PART_MODIFIERS.length, 1);
+    private final Zipf kinds = new Zipf(PART_KINDS.length, 1);
+    private final Zipf productWords = new Zipf(PRODUCT_WORDS.length, 0.8);
+    private final Zipf companies = new Zipf(COMPANY_NAMES.length, 1.1);
+    private final Zipf machines = new Zipf(MACHINES, 1);
+
+    /**
+     * @param seed
+     */
+    public CatalogGenerator(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Generates Parts with IDs counting up from 1.
+     * @param count
+     * @return parts
+     */
+    public List<Part> parts(int count) {
+        List<Part> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parts.add(part(i + 1));
+        }
+        return parts;
+    }
+
+    /**
+     * Generates a single Part.
+     * @param id
+     * @return part
+     */
+    public Part part(int id) {
+        String name = partName() + " " + id;
+        // Log-uniform from 5 cents to 500 dollars, rounded to the cent.
+        double price = Math.max(0.05, Math.round(Math.exp(random.nextDouble(Math.log(0.05), Math.log(500))) * 100)
+                / 100.0);
+        int min = random.nextInt(0, 50);
+        int max = min + random.nextInt(1, 500);
+        int stock = random.nextInt(min, max + 1);
+        if (random.nextDouble() < IN_HOUSE_SHARE) {
+            return new InHouse(id, name, price, stock, min, max, FIRST_MACHINE_ID + machines.next(random));
+        }
+        return new Outsourced(id, name, price, stock, min, max, COMPANY_NAMES[companies.next(random)]);
+    }
+
+    /**
+     * @return a Part name without the serial number, drawn from the same distribution as generated Parts
+     */
+    public String partName() {
+        return PART_MODIFIERS[modifiers.next(random)] + " " + PART_KINDS[kinds.next(random)];
+    }
+
+    /**
+     * @return a Product name without the serial number, drawn from the same distribution as generated Products
+     */
+    public String productName() {
+        return PRODUCT_WORDS[productWords.next(random)] + " " + PRODUCT_WORDS[productWords.next(random)];
+    }
+
+    /**
+     * Generates Products with IDs counting up from 1, each using between 1 and maxParts of the given Parts.
+     * @param count
+     * @param parts the Parts to associate, most popular first
+     * @param maxParts
+     * @return products
+     */
+    public List<Product> products(int count, List<Part> parts, int maxParts) {
+        Zipf fanOut = new Zipf(maxParts, 1.2);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = i + 1;
+            int min = random.nextInt(0, 10);
+            int max = min + random.nextInt(1, 100);
+            Product product = new Product(id, productName() + " " + id, random.nextInt(1_000, 1_000_000) / 100.0,
+                    random.nextInt(min, max + 1), min, max);
+            int partCount = parts.isEmpty() ? 0 : fanOut.next(random) + 1;
+            for (int j = 0; j < partCount; j++) {
+                product.addAssociatedPart(parts.get(popularIndex(parts.size())));
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * @return an index skewed towards the start of a list, cheaply enough for lists of millions
+     */
+    private int popularIndex(int size) {
+        return Math.min(size - 1, (int) (size * Math.pow(random.nextDouble(), PART_POPULARITY)));
+    }
+}
@@ -0,0 +1,205 @@
+package bench;
+
+import model.InHouse;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the Inventory's hot paths at a range of catalog sizes.
+ *
+ * Usage: {@code java -jar bench/target/benchmarks.jar} runs every benchmark at every size with JMH's own
+ * command line, so {@code -p parts=1000,100000} picks sizes and {@code -prof gc} adds the allocation rate.
+ * {@code java -cp bench/target/benchmarks.jar bench.InventoryBenchmarks [regex]} runs with the gc profiler
+ * already on. Each size is a catalog of that many Parts with a tenth as many Products; 10M needs a heap of
+ * several gigabytes, which the fork is given.
+ *
+ * Writes leave the catalog the same size they found it, so every iteration measures the same catalog.
+ *
+ * @author Zachary Mollenhour
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class InventoryBenchmarks {
+    private static final long SEED = 42;
+    // Inputs are drawn from pools of this size, cycled by invocation count; larger than any cache in the Inventory.
+    private static final int POOL = 1024;
+    private static final int MAX_ASSOCIATED_PARTS = 8;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int parts;
+
+    private List<Part> catalogParts;
+    private List<Product> catalogProducts;
+    private final int[] partIds = new int[POOL];
+    private final int[] productRows = new int[POOL];
+    private final String[] numericQueries = new String[POOL];
+    private final String[] textQueries = new String[POOL];
+    private final String[] productNumericQueries = new String[POOL];
+    private final String[] productTextQueries = new String[POOL];
+    private final Part[] replacements = new Part[POOL];
+    private Part popular;
+
+    /**
+     * The position of one benchmark thread in the input pools.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int invocation;
+
+        int next() {
+            return invocation++ & (POOL - 1);
+        }
+    }
+
+    /**
+     * Loads a catalog of the benchmarked size into the Inventory, replacing whatever was there, and draws the
+     * inputs. Queries are drawn from the same distributions as the names they search.
+     */
+    @Setup(Level.Trial)
+    public void load() {
+        CatalogGenerator generator = new CatalogGenerator(SEED);
+        catalogParts = generator.parts(parts);
+        catalogProducts = generator.products(Math.max(1, parts / 10), catalogParts, MAX_ASSOCIATED_PARTS);
+        Inventory.deleteProducts(Inventory.getAllProducts());
+        Inventory.deleteParts(Inventory.getAllParts());
+        Inventory.addParts(catalogParts);
+        Inventory.addProducts(catalogProducts);
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        CatalogGenerator queries = new CatalogGenerator(SEED + 1);
+        for (int i = 0; i < POOL; i++) {
+            Part original = catalogParts.get(random.nextInt(catalogParts.size()));
+            partIds[i] = original.getId();
+            productRows[i] = random.nextInt(catalogProducts.size());
+            numericQueries[i] = String.valueOf(original.getId());
+            textQueries[i] = queries.partName().toLowerCase();
+            productNumericQueries[i] = String.valueOf(catalogProducts.get(productRows[i]).getId());
+            productTextQueries[i] = queries.productName().toLowerCase();
+            replacements[i] = new InHouse(original.getId(), original.getName(), original.getPrice(),
+                    original.getStock(), original.getMin(), original.getMax(), 1);
+        }
+        // The first Parts are the most widely used, so repricing one recomputes the cost of many Products.
+        popular = catalogParts.get(0);
+    }
+
+    @Benchmark
+    public Part lookupPartById(Cursor cursor) {
+        return Inventory.lookupPart(partIds[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<Part> lookupPartByName(Cursor cursor) {
+        return Inventory.lookupPart(textQueries[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<Part> filterPartsNumeric(Cursor cursor) {
+        return Inventory.getFilteredParts(numericQueries[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<Part> filterPartsTextCached() {
+        return Inventory.getFilteredParts(textQueries[0]);
+    }
+
+    @Benchmark
+    public List<Part> filterPartsTextUncached(Cursor cursor) {
+        return Inventory.getFilteredParts(textQueries[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<Product> filterProductsNumeric(Cursor cursor) {
+        return Inventory.getFilteredProducts(productNumericQueries[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<Product> filterProductsTextCached() {
+        return Inventory.getFilteredProducts(productTextQueries[0]);
+    }
+
+    @Benchmark
+    public List<Product> filterProductsTextUncached(Cursor cursor) {
+        return Inventory.getFilteredProducts(productTextQueries[cursor.next()]);
+    }
+
+    @Benchmark
+    public int getNextPartId() {
+        return Inventory.getNextPartId();
+    }
+
+    @Benchmark
+    public boolean updatePart(Cursor cursor) {
+        return Inventory.updatePart(replacements[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean updatePopularPartPrice(Cursor cursor) {
+        return Inventory.updatePart(new InHouse(popular.getId(), popular.getName(), 1 + (cursor.next() & 1),
+                popular.getStock(), popular.getMin(), popular.getMax(), 1));
+    }
+
+    @Benchmark
+    public boolean addAndDeleteNewestPart() {
+        Part part = new InHouse(Inventory.getNextPartId(), "Benchmark Part", 1, 1, 1, 1, 1);
+        Inventory.addPart(part);
+        return Inventory.deletePart(part);
+    }
+
+    @Benchmark
+    public Part deleteAndAddRandomPart(Cursor cursor) {
+        Part part = Inventory.lookupPart(partIds[cursor.next()]);
+        Inventory.deletePart(part);
+        Inventory.addPart(part);
+        return part;
+    }
+
+    @Benchmark
+    public boolean addAndDeleteAssociatedPart(Cursor cursor) {
+        int slot = cursor.next();
+        Product product = Inventory.lookupProduct(catalogProducts.get(productRows[slot]).getId());
+        Part part = Inventory.lookupPart(partIds[slot]);
+        product.addAssociatedPart(part);
+        Inventory.updateProduct(product);
+        product.deleteAssociatedPart(part);
+        return Inventory.updateProduct(product);
+    }
+
+    /**
+     * Runs the benchmarks with the gc profiler, which reports the allocation rate alongside each result.
+     * @param args an optional regular expression selecting the benchmarks to run
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(InventoryBenchmarks.class.getSimpleName() + (args.length > 0 ? "." + args[0] : ""))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
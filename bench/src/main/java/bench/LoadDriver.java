@@ -0,0 +1,280 @@
+package bench;
+
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a mixed workload of searches, edits and deletes against the Inventory from many threads, and reports
+ * latency percentiles for each type of operation.
+ *
+ * Usage: {@code java -cp bench/target/benchmarks.jar bench.LoadDriver [parts] [threads] [rate] [seconds]}, which
+ * defaults to a catalog of 100,000 Parts, 8 threads, 1,000 operations a second and 30 seconds. A rate of 0 runs
+ * every thread flat out. Latencies are recorded in HdrHistograms, one per thread and operation, merged at the end.
+ *
+ * At a target rate each thread has a schedule of when its operations should start, and latency is measured
+ * from the scheduled start rather than the actual one. An operation held up by an earlier slow one is charged for
+ * the time it spent waiting, as a user would have been, so stalls show up in the percentiles instead of being
+ * hidden by the driver slowing down to match.
+ *
+ * @author Zachary Mollenhour
+ */
+public class LoadDriver {
+    private static final long SEED = 42;
+    private static final int MAX_ASSOCIATED_PARTS = 40;
+    private final int threads;
+    private final double rate;
+    private final long durationNanos;
+    private final int catalogSize;
+    // Parts added by the driver, which are the ones it deletes, so it never deletes a Part a Product uses.
+    private final ConcurrentLinkedQueue<Part> added = new ConcurrentLinkedQueue<>();
+    private long elapsedNanos;
+
+    /**
+     * The types of operation in the workload, each with its share of the mix.
+     */
+    public enum Operation {
+        SEARCH_PART_NAME(30),
+        SEARCH_PART_ID(10),
+        SEARCH_PRODUCT_NAME(10),
+        LOOKUP_PART(25),
+        UPDATE_PART(15),
+        ADD_PART(5),
+        DELETE_PART(5);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * @param catalogSize the number of Parts loaded before the run
+     * @param threads
+     * @param rate the target operations per second across all threads, or 0 for as fast as possible
+     * @param seconds
+     */
+    public LoadDriver(int catalogSize, int threads, double rate, int seconds) {
+        this.catalogSize = catalogSize;
+        this.threads = threads;
+        this.rate = rate;
+        this.durationNanos = seconds * 1_000_000_000L;
+    }
+
+    /**
+     * @param args parts, threads, rate and seconds, each optional
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int parts = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 1_000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        LoadDriver driver = new LoadDriver(parts, threads, rate, seconds);
+        driver.load();
+        System.out.printf("%d parts, %d threads, %s ops/s target, %d s%n", parts, threads,
+                rate > 0 ? String.valueOf((long) rate) : "unlimited", seconds);
+        Map<Operation, Histogram> histograms = driver.run();
+        report(histograms, driver.getElapsedNanos() / 1e9);
+    }
+
+    /**
+     * Replaces the Inventory with a generated catalog.
+     */
+    public void load() {
+        CatalogGenerator generator = new CatalogGenerator(SEED);
+        List<Part> parts = generator.parts(catalogSize);
+        Inventory.deleteProducts(Inventory.getAllProducts());
+        Inventory.deleteParts(Inventory.getAllParts());
+        Inventory.addParts(parts);
+        Inventory.addProducts(generator.products(Math.max(1, catalogSize / 10), parts, MAX_ASSOCIATED_PARTS));
+    }
+
+    /**
+     * Runs the workload.
+     * @return the latencies of each type of operation, in nanoseconds
+     * @throws InterruptedException
+     */
+    public Map<Operation, Histogram> run() throws InterruptedException {
+        List<Worker> workers = new ArrayList<>(threads);
+        long start = System.nanoTime() + 10_000_000;
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(i, start));
+        }
+        List<Thread> running = new ArrayList<>(threads);
+        for (Worker worker : workers) {
+            Thread thread = new Thread(worker, "load-" + worker.index);
+            thread.start();
+            running.add(thread);
+        }
+        for (Thread thread : running) {
+            thread.join();
+        }
+        elapsedNanos = System.nanoTime() - start;
+        Map<Operation, Histogram> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            merged.put(operation, newHistogram());
+        }
+        for (Worker worker : workers) {
+            worker.histograms.forEach((operation, histogram) -> merged.get(operation).add(histogram));
+        }
+        return merged;
+    }
+
+    /**
+     * @return how long the last run took, which is longer than asked for if the Inventory couldn't keep up
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Prints a table of latency percentiles, in microseconds.
+     * @param histograms
+     * @param seconds how long the run took, for throughput
+     */
+    public static void report(Map<Operation, Histogram> histograms, double seconds) {
+        System.out.printf(Locale.ROOT, "%-20s %10s %10s %10s %10s %10s %10s %10s %10s%n", "Operation", "count",
+                "ops/s", "mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        Histogram total = newHistogram();
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            printRow(entry.getKey().name(), entry.getValue(), seconds);
+            total.add(entry.getValue());
+        }
+        printRow("ALL", total, seconds);
+    }
+
+    private static void printRow(String name, Histogram histogram, double seconds) {
+        System.out.printf(Locale.ROOT, "%-20s %10d %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", name,
+                histogram.getTotalCount(), histogram.getTotalCount() / seconds, histogram.getMean() / 1e3,
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(90) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3, histogram.getValueAtPercentile(99.9) / 1e3,
+                histogram.getMaxValue() / 1e3);
+    }
+
+    /**
+     * @return an empty histogram that resizes to fit whatever it records, to three significant digits
+     */
+    private static Histogram newHistogram() {
+        return new Histogram(3);
+    }
+
+    /**
+     * One thread of the workload, with its own random stream and histograms so threads never share state.
+     */
+    private final class Worker implements Runnable {
+        private final int index;
+        private final long start;
+        private final SplittableRandom random;
+        private final CatalogGenerator generator;
+        private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+
+        private Worker(int index, long start) {
+            this.index = index;
+            this.start = start;
+            random = new SplittableRandom(SEED + index);
+            generator = new CatalogGenerator(SEED + threads + index);
+            for (Operation operation : Operation.values()) {
+                histograms.put(operation, newHistogram());
+            }
+        }
+
+        @Override
+        public void run() {
+            long end = start + durationNanos;
+            long interval = rate > 0 ? (long) (threads * 1e9 / rate) : 0;
+            // Threads are staggered across the interval, so they don't all start their operations together.
+            long next = start + interval * index / threads;
+            while (true) {
+                long now = System.nanoTime();
+                if (interval > 0) {
+                    while (now < next) {
+                        LockSupport.parkNanos(next - now);
+                        now = System.nanoTime();
+                    }
+                }
+                long scheduled = interval > 0 ? next : now;
+                if (scheduled >= end) {
+                    break;
+                }
+                Operation operation = pick();
+                perform(operation);
+                histograms.get(operation).recordValue(System.nanoTime() - scheduled);
+                next += interval;
+            }
+        }
+
+        private Operation pick() {
+            int roll = random.nextInt(100);
+            for (Operation operation : Operation.values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return Operation.LOOKUP_PART;
+        }
+
+        private void perform(Operation operation) {
+            switch (operation) {
+                case SEARCH_PART_NAME:
+                    Inventory.getFilteredParts(generator.partName());
+                    break;
+                case SEARCH_PART_ID:
+                    Inventory.getFilteredParts(String.valueOf(randomPartId()));
+                    break;
+                case SEARCH_PRODUCT_NAME:
+                    Inventory.getFilteredProducts(generator.productName());
+                    break;
+                case LOOKUP_PART:
+                    Inventory.lookupPart(randomPartId());
+                    break;
+                case UPDATE_PART:
+                    Part current = Inventory.lookupPart(randomPartId());
+                    if (current != null) {
+                        int stock = random.nextInt(current.getMin(), current.getMax() + 1);
+                        Inventory.updatePart(withStock(current, stock));
+                    }
+                    break;
+                case ADD_PART:
+                    Part part = generator.part(Inventory.getNextPartId());
+                    Inventory.addPart(part);
+                    added.add(part);
+                    break;
+                case DELETE_PART:
+                    Part deleted = added.poll();
+                    if (deleted != null) {
+                        Inventory.deletePart(deleted);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException(operation.name());
+            }
+        }
+
+        private int randomPartId() {
+            return random.nextInt(1, catalogSize + 1);
+        }
+    }
+
+    private static Part withStock(Part part, int stock) {
+        if (part instanceof InHouse) {
+            return new InHouse(part.getId(), part.getName(), part.getPrice(), stock, part.getMin(), part.getMax(),
+                    ((InHouse) part).getMachineId());
+        }
+        return new Outsourced(part.getId(), part.getName(), part.getPrice(), stock, part.getMin(), part.getMax(),
+                ((Outsourced) part).getCompanyName());
+    }
+}
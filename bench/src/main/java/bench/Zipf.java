@@ -0,0 +1,40 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks from a Zipf distribution, where rank k is chosen with probability proportional to 1 / k^s.
+ * Catalogs are skewed like this: a few words, suppliers and machines account for most of the Parts, and a few
+ * Parts are used by most of the Products.
+ *
+ * @author Zachary Mollenhour
+ */
+class Zipf {
+    private final double[] cumulative;
+
+    /**
+     * @param size the number of ranks
+     * @param exponent how skewed the distribution is; 0 is uniform, and around 1 is typical of real catalogs
+     */
+    Zipf(int size, double exponent) {
+        cumulative = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= total;
+        }
+    }
+
+    /**
+     * @param random
+     * @return a rank, from 0 for the most likely up to size - 1
+     */
+    int next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,90 @@
+package ims.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of an import: how many records were added, which lines were rejected and why, and which were
+ * imported with warnings. Only the first {@value #MAX_ERRORS} errors and warnings of each kind are kept, so a badly
+ * broken file can't use up memory, but every rejected line is counted.
+ *
+ * @author Zachary Mollenhour
+ */
+public class ImportResult {
+    private static final int MAX_ERRORS = 1000;
+    private final List<String> errors = new ArrayList<>();
+    private final List<String> warnings = new ArrayList<>();
+    private int partsImported;
+    private int productsImported;
+    private int rejected;
+
+    ImportResult() {
+    }
+
+    /**
+     * @return the number of Parts added to the Inventory
+     */
+    public int getPartsImported() {
+        return partsImported;
+    }
+
+    /**
+     * @return the number of Products added to the Inventory
+     */
+    public int getProductsImported() {
+        return productsImported;
+    }
+
+    /**
+     * @return the number of lines that were rejected
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the reasons the first lines were rejected, each prefixed with its line number
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return problems with the first lines that were imported anyway, each prefixed with its line number
+     */
+    public List<String> getWarnings() {
+        return Collections.unmodifiableList(warnings);
+    }
+
+    void partImported() {
+        partsImported++;
+    }
+
+    void productImported() {
+        productsImported++;
+    }
+
+    /**
+     * Records that a line was rejected.
+     * @param line the line number, counting from 1
+     * @param reasons
+     */
+    void reject(long line, List<String> reasons) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Line " + line + ": " + String.join(" ", reasons));
+        }
+    }
+
+    /**
+     * Records a problem with a line that was still imported.
+     * @param line the line number, counting from 1
+     * @param warning
+     */
+    void warn(long line, String warning) {
+        if (warnings.size() < MAX_ERRORS) {
+            warnings.add("Line " + line + ": " + warning);
+        }
+    }
+}
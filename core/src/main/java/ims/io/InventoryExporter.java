@@ -0,0 +1,91 @@
+package ims.io;
+
+import model.InHouse;
+import model.Inventory;
+import model.InventorySnapshot;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Streams every Part and Product in the Inventory out to a file, in a form {@link InventoryImporter} can read back.
+ * The records are written from a snapshot, one at a time, so exporting neither holds up changes to the Inventory
+ * nor needs memory in proportion to its size. Parts are written before Products, so that on import each Product's
+ * Parts are known by the time the Product is read.
+ *
+ * @author Zachary Mollenhour
+ */
+public class InventoryExporter {
+    private InventoryExporter() {
+    }
+
+    /**
+     * Exports to a file, picking the format from its extension.
+     * @param path
+     * @throws IOException if the file can't be written
+     */
+    public static void exportFile(Path path) throws IOException {
+        RecordFormat format = RecordFormat.forPath(path);
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            exportTo(out, format);
+        }
+    }
+
+    /**
+     * Exports to a writer, which is left open.
+     * @param out
+     * @param format
+     * @throws IOException if the writer fails
+     */
+    public static void exportTo(Writer out, RecordFormat format) throws IOException {
+        InventorySnapshot snapshot = Inventory.snapshot();
+        String[] values = new String[RecordFormat.COLUMNS.length];
+        format.writeHeader(out);
+        for (Part part : snapshot.getParts()) {
+            Arrays.fill(values, null);
+            fill(values, part.getId(), part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+            if (part instanceof Outsourced) {
+                values[RecordFormat.TYPE] = "Outsourced";
+                values[RecordFormat.COMPANY_NAME] = ((Outsourced) part).getCompanyName();
+            } else {
+                values[RecordFormat.TYPE] = "InHouse";
+                values[RecordFormat.MACHINE_ID] = Integer.toString(part instanceof InHouse ? ((InHouse) part).getMachineId() : 0);
+            }
+            format.write(out, values);
+        }
+        for (Product product : snapshot.getProducts()) {
+            Arrays.fill(values, null);
+            fill(values, product.getId(), product.getName(), product.getPrice(), product.getStock(),
+                    product.getMin(), product.getMax());
+            values[RecordFormat.TYPE] = "Product";
+            StringBuilder partIds = new StringBuilder();
+            for (Part part : product.getAllAssociatedParts()) {
+                if (partIds.length() > 0) {
+                    partIds.append(' ');
+                }
+                partIds.append(part.getId());
+            }
+            values[RecordFormat.PART_IDS] = partIds.toString();
+            format.write(out, values);
+        }
+        out.flush();
+    }
+
+    private static void fill(String[] values, int id, String name, double price, int stock, int min, int max) {
+        values[RecordFormat.ID] = Integer.toString(id);
+        values[RecordFormat.NAME] = name;
+        // Plain notation, since the import rules don't accept exponents.
+        values[RecordFormat.PRICE] = BigDecimal.valueOf(price).toPlainString();
+        values[RecordFormat.STOCK] = Integer.toString(stock);
+        values[RecordFormat.MIN] = Integer.toString(min);
+        values[RecordFormat.MAX] = Integer.toString(max);
+    }
+}
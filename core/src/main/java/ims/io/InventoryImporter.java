@@ -0,0 +1,328 @@
+package ims.io;
+
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+import model.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams Parts and Products from a file into the Inventory.
+ *
+ * An import runs as a pipeline of three stages:
+ * <ol>
+ *     <li>A reader thread splits the file into chunks of records, joining the lines of a quoted CSV field that
+ *     spans several.</li>
+ *     <li>A pool of workers parses and validates the chunks in parallel, using the same rules as the forms.</li>
+ *     <li>The calling thread commits the chunks to the Inventory in file order, one batch per chunk.</li>
+ * </ol>
+ * Only a fixed number of chunks are ever in flight, so the reader waits for the other stages to catch up rather
+ * than reading ahead, and memory use doesn't grow with the size of the file.
+ *
+ * A line that fails to parse or validate, or that clashes with the Inventory, is rejected on its own and
+ * reported in the result; the rest of the file is still imported. Products are linked to their Parts by ID, so
+ * a Product's Parts must either be in the Inventory already or come earlier in the file. A Product is still
+ * imported if some of its Parts don't exist, such as Parts deleted after it was exported, but without them, and
+ * each missing Part is reported as a warning.
+ *
+ * @author Zachary Mollenhour
+ */
+public class InventoryImporter {
+    private static final int CHUNK_RECORDS = 1024;
+    // A record can't span more lines than this, so a stray quote can't pull the rest of the file into one record.
+    private static final int MAX_RECORD_LINES = 1024;
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private InventoryImporter() {
+    }
+
+    /**
+     * Imports a file, picking its format from its extension.
+     * @param path
+     * @return what was imported and what was rejected
+     * @throws IOException if the file can't be read
+     */
+    public static ImportResult importFile(Path path) throws IOException {
+        RecordFormat format = RecordFormat.forPath(path);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return importFrom(reader, format);
+        }
+    }
+
+    /**
+     * Imports records from a reader, which is left open.
+     * @param reader
+     * @param format
+     * @return what was imported and what was rejected
+     * @throws IOException if the reader fails
+     */
+    public static ImportResult importFrom(BufferedReader reader, RecordFormat format) throws IOException {
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        // One thread for the reader, and the rest for parsing.
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount + 1, task -> {
+            Thread thread = new Thread(task, "import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Each queued chunk is already with the workers, so the queue's capacity is the number of chunks in flight.
+        BlockingQueue<Future<List<Row>>> parsed = new ArrayBlockingQueue<>(workerCount * 2);
+        workers.execute(() -> read(reader, format, workers, parsed));
+        ImportResult result = new ImportResult();
+        try {
+            while (true) {
+                Future<List<Row>> next = parsed.take();
+                List<Row> rows = next.get();
+                if (rows == null) {
+                    break;
+                }
+                Inventory.batch(() -> rows.forEach(row -> commit(row, result)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ReadFailure) {
+                throw ((ReadFailure) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * The reader stage: splits the input into chunks and hands each to the workers, ending with a null chunk.
+     */
+    private static void read(BufferedReader reader, RecordFormat format, ExecutorService workers,
+                             BlockingQueue<Future<List<Row>>> parsed) {
+        try {
+            String[] header = null;
+            long lineNumber = 0;
+            String line;
+            if (format == RecordFormat.CSV) {
+                do {
+                    line = reader.readLine();
+                    lineNumber++;
+                } while (line != null && line.isBlank());
+                if (line == null) {
+                    parsed.put(CompletableFuture.completedFuture(null));
+                    return;
+                }
+                header = format.readHeader(line);
+                if (!List.of(header).contains("type")) {
+                    throw new IOException("The header has no type column.");
+                }
+            }
+            String[] columns = header;
+            List<String> records = new ArrayList<>(CHUNK_RECORDS);
+            long[] recordLines = new long[CHUNK_RECORDS];
+            // A record whose quoted field carries on to the next line, and the quotes it has so far.
+            StringBuilder record = null;
+            int quotes = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (record == null) {
+                    recordLines[records.size()] = lineNumber;
+                    record = new StringBuilder(line);
+                } else {
+                    record.append('\n').append(line);
+                }
+                quotes += format.quotes(line);
+                if (quotes % 2 != 0 && lineNumber - recordLines[records.size()] + 1 < MAX_RECORD_LINES) {
+                    continue;
+                }
+                records.add(record.toString());
+                record = null;
+                quotes = 0;
+                if (records.size() == CHUNK_RECORDS) {
+                    submit(records, recordLines, format, columns, workers, parsed);
+                    records = new ArrayList<>(CHUNK_RECORDS);
+                    recordLines = new long[CHUNK_RECORDS];
+                }
+            }
+            // A quote that's never closed is left for the parser to report, as it is when a record runs too long.
+            if (record != null) {
+                records.add(record.toString());
+            }
+            if (!records.isEmpty()) {
+                submit(records, recordLines, format, columns, workers, parsed);
+            }
+            parsed.put(CompletableFuture.completedFuture(null));
+        } catch (IOException e) {
+            try {
+                parsed.put(CompletableFuture.failedFuture(new ReadFailure(e)));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void submit(List<String> records, long[] recordLines, RecordFormat format, String[] header,
+                               ExecutorService workers, BlockingQueue<Future<List<Row>>> parsed)
+            throws InterruptedException {
+        parsed.put(workers.submit(() -> parse(records, recordLines, format, header)));
+    }
+
+    /**
+     * The worker stage: parses and validates a chunk of records, without touching the Inventory.
+     * @param recordLines the line each record starts on
+     */
+    private static List<Row> parse(List<String> records, long[] recordLines, RecordFormat format, String[] header) {
+        List<Row> rows = new ArrayList<>(records.size());
+        Validator validator = new Validator();
+        for (int i = 0; i < records.size(); i++) {
+            if (!records.get(i).isBlank()) {
+                validator.reset();
+                rows.add(parseRow(records.get(i), recordLines[i], format, header, validator));
+            }
+        }
+        return rows;
+    }
+
+    private static Row parseRow(String line, long lineNumber, RecordFormat format, String[] header,
+                                Validator validator) {
+        Row row = new Row(lineNumber);
+        Map<String, String> fields;
+        try {
+            fields = format.parse(line, header);
+        } catch (IOException e) {
+            row.errors = List.of(e.getMessage());
+            return row;
+        }
+        String type = field(fields, "type").toLowerCase(Locale.ROOT);
+        String idText = field(fields, "id");
+        int id = idText.isEmpty() ? -1 : validator.positiveInteger(idText, "ID");
+        String name = field(fields, "name");
+        boolean isProduct = type.equals("product");
+        double price = validator.decimal(field(fields, "price"), isProduct ? "Price" : "Price/Cost");
+        int stock = validator.positiveInteger(field(fields, "stock"), "Inv");
+        int max = validator.positiveInteger(field(fields, "max"), "Max");
+        int min = validator.positiveInteger(field(fields, "min"), "Min");
+        validator.inventoryLevels(stock, min, max);
+        switch (type) {
+            case "inhouse":
+                int machineId = validator.positiveInteger(field(fields, "machineId"), "Machine ID");
+                row.part = new InHouse(id, name, price, stock, min, max, machineId);
+                break;
+            case "outsourced":
+                row.part = new Outsourced(id, name, price, stock, min, max, field(fields, "companyName"));
+                break;
+            case "product":
+                String partIds = field(fields, "partIds");
+                String[] tokens = partIds.isEmpty() ? new String[0] : partIds.split("[\\s;]+");
+                row.partIds = new int[tokens.length];
+                for (int i = 0; i < tokens.length; i++) {
+                    row.partIds[i] = validator.positiveInteger(tokens[i], "Part ID");
+                }
+                row.product = new Product(id, name, price, stock, min, max);
+                break;
+            default:
+                row.errors = validator.messages();
+                row.errors.add("Type must be InHouse, Outsourced or Product.");
+                return row;
+        }
+        if (validator.hasErrors()) {
+            row.errors = validator.messages();
+        }
+        return row;
+    }
+
+    private static String field(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * The commit stage: adds a parsed record to the Inventory, unless it was rejected or clashes with it.
+     */
+    private static void commit(Row row, ImportResult result) {
+        if (!row.errors.isEmpty()) {
+            result.reject(row.line, row.errors);
+        } else if (row.part != null) {
+            Part part = row.part;
+            if (part.getId() < 0) {
+                part.setId(Inventory.getNextPartId());
+            } else if (Inventory.lookupPart(part.getId()) != null) {
+                result.reject(row.line, List.of("Part ID " + part.getId() + " already exists."));
+                return;
+            }
+            Inventory.addPart(part);
+            result.partImported();
+        } else {
+            Product product = row.product;
+            if (product.getId() >= 0 && Inventory.lookupProduct(product.getId()) != null) {
+                result.reject(row.line, List.of("Product ID " + product.getId() + " already exists."));
+                return;
+            }
+            List<Part> parts = new ArrayList<>(row.partIds.length);
+            for (int partId : row.partIds) {
+                Part part = Inventory.lookupPart(partId);
+                if (part == null) {
+                    result.warn(row.line, "Part ID " + partId + " doesn't exist, so it wasn't associated.");
+                } else {
+                    parts.add(part);
+                }
+            }
+            if (product.getId() < 0) {
+                product.setId(Inventory.getNextProductId());
+            }
+            parts.forEach(product::addAssociatedPart);
+            Inventory.addProduct(product);
+            result.productImported();
+        }
+    }
+
+    /**
+     * One parsed line: either a Part, a Product with the IDs of its Parts, or the reasons it was rejected.
+     */
+    private static final class Row {
+        private final long line;
+        private List<String> errors = List.of();
+        private Part part;
+        private Product product;
+        private int[] partIds;
+
+        private Row(long line) {
+            this.line = line;
+        }
+    }
+
+    /**
+     * Carries a read error from the reader stage to the commit stage.
+     */
+    private static final class ReadFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private ReadFailure(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package ims.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The file formats Parts and Products can be imported from and exported to.
+ * Both formats hold one record per line, except that a quoted CSV field may span lines, so a file can be split into
+ * records and the records parsed independently.
+ * Every record has the same fields, named by {@link #COLUMNS}; fields that don't apply to a record are left empty.
+ *
+ * @author Zachary Mollenhour
+ */
+public enum RecordFormat {
+    /**
+     * Comma-separated values, with a header line naming the columns.
+     * Fields are quoted as in RFC 4180, with quotes doubled inside them, and a quoted field may span lines.
+     * Spaces around unquoted fields are ignored, while those inside quotes are kept.
+     */
+    CSV {
+        @Override
+        String[] readHeader(String line) throws IOException {
+            return splitCsv(line);
+        }
+
+        @Override
+        int quotes(String line) {
+            int quotes = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes;
+        }
+
+        @Override
+        Map<String, String> parse(String line, String[] header) throws IOException {
+            String[] values = splitCsv(line);
+            if (values.length > header.length) {
+                throw new IOException("Row has " + values.length + " fields but the header has " + header.length + ".");
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                record.put(header[i], values[i]);
+            }
+            return record;
+        }
+
+        @Override
+        void writeHeader(Appendable out) throws IOException {
+            out.append(String.join(",", COLUMNS)).append('\n');
+        }
+
+        @Override
+        void write(Appendable out, String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                String value = values[i] == null ? "" : values[i];
+                if (needsQuotes(value)) {
+                    out.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else {
+                    out.append(value);
+                }
+            }
+            out.append('\n');
+        }
+    },
+
+    /**
+     * Newline-delimited JSON, with one flat object per line.
+     * Values may be strings, numbers, null, or for the associated Part IDs, an array of numbers.
+     */
+    NDJSON {
+        @Override
+        String[] readHeader(String line) {
+            return null;
+        }
+
+        @Override
+        Map<String, String> parse(String line, String[] header) throws IOException {
+            return new JsonLine(line).readObject();
+        }
+
+        @Override
+        int quotes(String line) {
+            return 0;
+        }
+
+        @Override
+        void writeHeader(Appendable out) {
+        }
+
+        @Override
+        void write(Appendable out, String[] values) throws IOException {
+            out.append('{');
+            boolean first = true;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                out.append('"').append(COLUMNS[i]).append("\":");
+                if (i == PART_IDS) {
+                    out.append('[').append(values[i].trim().replace(' ', ',')).append(']');
+                } else if (i == TYPE || i == NAME || i == COMPANY_NAME) {
+                    writeJsonString(out, values[i]);
+                } else {
+                    out.append(values[i]);
+                }
+            }
+            out.append("}\n");
+        }
+    };
+
+    /**
+     * The fields of a record, in the order they're written.
+     * Associated Part IDs are written as a single field, separated by spaces.
+     */
+    public static final String[] COLUMNS = {"type", "id", "name", "price", "stock", "min", "max", "machineId",
+            "companyName", "partIds"};
+    static final int TYPE = 0;
+    static final int ID = 1;
+    static final int NAME = 2;
+    static final int PRICE = 3;
+    static final int STOCK = 4;
+    static final int MIN = 5;
+    static final int MAX = 6;
+    static final int MACHINE_ID = 7;
+    static final int COMPANY_NAME = 8;
+    static final int PART_IDS = 9;
+
+    /**
+     * Picks a format from a file's extension: .csv for CSV, and .ndjson, .jsonl or .json for NDJSON.
+     * @param path
+     * @return the format
+     * @throws IOException if the extension isn't recognised
+     */
+    public static RecordFormat forPath(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+            return NDJSON;
+        }
+        throw new IOException("Unrecognised file type: " + path.getFileName());
+    }
+
+    /**
+     * Reads the column names from the first line, for formats that have a header.
+     * @param line
+     * @return the column names, or null if the format has no header
+     * @throws IOException if the header can't be read
+     */
+    abstract String[] readHeader(String line) throws IOException;
+
+    /**
+     * Counts the quotes that open or close a field on a line. A record carries on to the next line for as long as
+     * it has an odd number of them, so formats whose records never span lines count none.
+     * @param line
+     * @return the number of quotes
+     */
+    abstract int quotes(String line);
+
+    /**
+     * Parses one record into its fields.
+     * @param line the record, with the lines of a record that spans several joined by newlines
+     * @param header the column names read from the header, if the format has one
+     * @return the record's fields, by column name
+     * @throws IOException if the line is malformed
+     */
+    abstract Map<String, String> parse(String line, String[] header) throws IOException;
+
+    /**
+     * Writes whatever has to come before the first record.
+     * @param out
+     * @throws IOException
+     */
+    abstract void writeHeader(Appendable out) throws IOException;
+
+    /**
+     * Writes one record.
+     * @param out
+     * @param values the record's fields in {@link #COLUMNS} order, with null for fields that don't apply
+     * @throws IOException
+     */
+    abstract void write(Appendable out, String[] values) throws IOException;
+
+    /**
+     * A field has to be quoted if it holds a separator, a quote or a line break, or if it starts or ends with
+     * spaces that would otherwise be trimmed on import.
+     */
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1));
+    }
+
+    private static String[] splitCsv(String line) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        // Whether the current field has a quoted part, in which case it's kept as it is rather than trimmed.
+        boolean hadQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                if (!hadQuotes && isBlank(field)) {
+                    field.setLength(0);
+                }
+                quoted = true;
+                hadQuotes = true;
+            } else if (c == ',') {
+                fields.add(hadQuotes ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                hadQuotes = false;
+            } else if (!hadQuotes || !Character.isWhitespace(c)) {
+                // Spaces after a closing quote are dropped, as spaces before the opening one were.
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field.");
+        }
+        fields.add(hadQuotes ? field.toString() : field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeJsonString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * A reader for the flat JSON objects on a single NDJSON line.
+     * Numbers are kept as the text they were written as, so the usual validation rules can be applied to them.
+     */
+    private static final class JsonLine {
+        private final String line;
+        private int at;
+
+        private JsonLine(String line) {
+            this.line = line;
+        }
+
+        private Map<String, String> readObject() throws IOException {
+            Map<String, String> record = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                at++;
+            } else {
+                do {
+                    String key = readString();
+                    expect(':');
+                    record.put(key, readValue());
+                } while (next(',', '}'));
+            }
+            if (skipSpace() < line.length()) {
+                throw error("Unexpected text after the object");
+            }
+            return record;
+        }
+
+        private String readValue() throws IOException {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '[') {
+                at++;
+                StringBuilder values = new StringBuilder();
+                if (peek() == ']') {
+                    at++;
+                    return "";
+                }
+                do {
+                    if (values.length() > 0) {
+                        values.append(' ');
+                    }
+                    values.append(readLiteral());
+                } while (next(',', ']'));
+                return values.toString();
+            }
+            String literal = readLiteral();
+            return literal.equals("null") ? "" : literal;
+        }
+
+        private String readLiteral() throws IOException {
+            skipSpace();
+            int start = at;
+            while (at < line.length() && ",]} \t".indexOf(line.charAt(at)) < 0) {
+                at++;
+            }
+            if (start == at) {
+                throw error("Expected a value");
+            }
+            return line.substring(start, at);
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (at < line.length()) {
+                char c = line.charAt(at++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (at >= line.length()) {
+                    break;
+                }
+                char escaped = line.charAt(at++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (at + 4 > line.length()) {
+                            throw error("Truncated escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(line.substring(at, at + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid escape");
+                        }
+                        at += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        /**
+         * Consumes a separator or a closing character.
+         * @return true for the separator, false for the closing character
+         */
+        private boolean next(char separator, char close) throws IOException {
+            char c = peek();
+            at++;
+            if (c == separator) {
+                return true;
+            }
+            if (c == close) {
+                return false;
+            }
+            throw error("Expected '" + separator + "' or '" + close + "'");
+        }
+
+        private void expect(char c) throws IOException {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            at++;
+        }
+
+        private char peek() throws IOException {
+            if (skipSpace() >= line.length()) {
+                throw error("Unexpected end of line");
+            }
+            return line.charAt(at);
+        }
+
+        private int skipSpace() {
+            while (at < line.length() && Character.isWhitespace(line.charAt(at))) {
+                at++;
+            }
+            return at;
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at column " + (at + 1) + ".");
+        }
+    }
+}
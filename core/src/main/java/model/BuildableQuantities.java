@@ -0,0 +1,211 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * How many units of each Product in the Inventory could be built from the Parts in stock: for each distinct
+ * associated Part, its stock divided by the number of times the Product lists it, and the smallest of those.
+ * A Product with no associated Parts, or one using a Part no longer in the Inventory, can't be built.
+ *
+ * A loaded catalog is computed all at once, split across the common fork/join pool, on the thread loading it. From
+ * there quantities are kept up to date as the Inventory changes, recomputing only the Products found using a
+ * changed Part through the where-used index.
+ *
+ * Quantities are written under the Inventory lock, into int pages indexed by Product ID, and published to readers
+ * once per batch of changes, so a table cell can read one on the JavaFX Application Thread without waiting for the
+ * lock. Published pages are never written again: the writer copies a page the first time it changes it after a
+ * publish, in the same way the Part columns share chunks with their snapshots, so readers only ever see whole
+ * batches and publishing costs one copy of the page table rather than of every quantity.
+ *
+ * @author Zachary Mollenhour
+ */
+class BuildableQuantities {
+    // Below this many Products, splitting the work costs more than it saves.
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 11;
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private final IntUnaryOperator stockOf;
+    // Each Product's quantity plus one, by ID, so that 0 marks a Product with none kept. Pages are created as IDs
+    // need them, and a page the writer has copied since the last publish is marked as its own.
+    private int[][] pages = new int[0][];
+    private boolean[] ownPages = new boolean[0];
+    private volatile int[][] published = pages;
+    private boolean changed;
+    private int size;
+
+    /**
+     * @param stockOf gives the current stock of a Part by ID, or 0 if it isn't in the Inventory
+     */
+    BuildableQuantities(IntUnaryOperator stockOf) {
+        this.stockOf = stockOf;
+    }
+
+    /**
+     * Reads a quantity as of the last publish, without the Inventory lock.
+     * @param productId
+     * @return the number of units of the Product that could be built, or 0 if it isn't in the Inventory
+     */
+    int quantity(int productId) {
+        int[][] current = published;
+        int page = productId >>> PAGE_SHIFT;
+        if (productId < 0 || page >= current.length || current[page] == null) {
+            return 0;
+        }
+        return Math.max(0, current[page][productId & PAGE_MASK] - 1);
+    }
+
+    /**
+     * Computes the quantity of a Product added to the Inventory, or recomputes it after its Parts changed.
+     * A Product with a negative ID can't be looked up by it, so its quantity isn't kept.
+     * @param product
+     * @return whether the Product's quantity changed
+     */
+    boolean update(Product product) {
+        if (product.getId() < 0) {
+            return false;
+        }
+        return set(product.getId(), compute(product) + 1);
+    }
+
+    /**
+     * Forgets a Product removed from the Inventory.
+     * @param product
+     */
+    void remove(Product product) {
+        if (product.getId() >= 0) {
+            set(product.getId(), 0);
+        }
+    }
+
+    /**
+     * Makes the changes since the last publish visible to readers. Called once per batch, with the lock held.
+     */
+    void publish() {
+        if (!changed) {
+            return;
+        }
+        published = pages.clone();
+        Arrays.fill(ownPages, false);
+        changed = false;
+    }
+
+    /**
+     * @return the number of Products whose quantity is kept
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param productId
+     * @param stored the quantity plus one, or 0 to forget the Product
+     * @return whether the stored value changed
+     */
+    private boolean set(int productId, int stored) {
+        int page = productId >>> PAGE_SHIFT;
+        int offset = productId & PAGE_MASK;
+        int previous = page < pages.length && pages[page] != null ? pages[page][offset] : 0;
+        if (previous == stored) {
+            return false;
+        }
+        writablePage(page)[offset] = stored;
+        size += (stored != 0 ? 1 : 0) - (previous != 0 ? 1 : 0);
+        changed = true;
+        return true;
+    }
+
+    /**
+     * @param page
+     * @return the page, created or copied first unless the writer already owns it
+     */
+    private int[] writablePage(int page) {
+        if (page >= pages.length) {
+            int length = Math.max(page + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            ownPages = Arrays.copyOf(ownPages, length);
+        }
+        if (!ownPages[page]) {
+            pages[page] = pages[page] == null ? new int[PAGE_SIZE] : pages[page].clone();
+            ownPages[page] = true;
+        }
+        return pages[page];
+    }
+
+    /**
+     * Computes the quantities of a loaded catalog in parallel. The Parts they read must not change meanwhile,
+     * either because the caller holds the Inventory lock or because they aren't in the Inventory yet.
+     * @param products
+     */
+    void computeAll(List<Product> products) {
+        int[] computed = new int[products.size()];
+        ForkJoinPool.commonPool().invoke(new ComputeRange(products, computed, 0, computed.length));
+        for (int i = 0; i < computed.length; i++) {
+            if (products.get(i).getId() >= 0) {
+                set(products.get(i).getId(), computed[i] + 1);
+            }
+        }
+        publish();
+    }
+
+    /**
+     * @param product
+     * @return the number of units of the Product that could be built from the Parts in stock
+     */
+    int compute(Product product) {
+        List<Part> parts = product.getAllAssociatedParts();
+        if (parts.isEmpty()) {
+            return 0;
+        }
+        int[] ids = new int[parts.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = parts.get(i).getId();
+        }
+        // Sorted, each distinct Part is a run of its ID, and the length of the run is the quantity needed.
+        Arrays.sort(ids);
+        int buildable = Integer.MAX_VALUE;
+        for (int start = 0, end; start < ids.length && buildable > 0; start = end) {
+            end = start + 1;
+            while (end < ids.length && ids[end] == ids[start]) {
+                end++;
+            }
+            buildable = Math.min(buildable, Math.max(0, stockOf.applyAsInt(ids[start])) / (end - start));
+        }
+        return buildable;
+    }
+
+    /**
+     * Computes the quantities of a range of Products, splitting it in half until it's small enough to do directly.
+     */
+    private final class ComputeRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Product> products;
+        private final int[] computed;
+        private final int from;
+        private final int to;
+
+        private ComputeRange(List<Product> products, int[] computed, int from, int to) {
+            this.products = products;
+            this.computed = computed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    computed[i] = BuildableQuantities.this.compute(products.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ComputeRange(products, computed, from, middle),
+                    new ComputeRange(products, computed, middle, to));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The bill-of-materials cost of each Product in the Inventory: the summed price of its associated Parts, with a
+ * Part associated more than once counted once per association.
+ * Costs are kept up to date as the Inventory changes rather than summed when asked for. A change to a Part only
+ * recomputes the Products found using it through the where-used index, so repricing one Part costs time in
+ * proportion to the Products using it, not to the size of the catalog.
+ *
+ * @author Zachary Mollenhour
+ */
+class CostRollup {
+    private final Map<Product, Double> costs = new HashMap<>();
+    private final ToDoubleFunction<Part> priceOf;
+
+    /**
+     * @param priceOf gives the current price of an associated Part
+     */
+    CostRollup(ToDoubleFunction<Part> priceOf) {
+        this.priceOf = priceOf;
+    }
+
+    /**
+     * Computes and keeps the cost of a Product added to the Inventory, or recomputes it after its Parts changed.
+     * @param product
+     */
+    void update(Product product) {
+        costs.put(product, sum(product));
+    }
+
+    /**
+     * Forgets a Product removed from the Inventory.
+     * @param product
+     */
+    void remove(Product product) {
+        costs.remove(product);
+    }
+
+    /**
+     * @param product
+     * @return the Product's cost, summed now if it isn't in the Inventory
+     */
+    double cost(Product product) {
+        Double cost = costs.get(product);
+        return cost != null ? cost : sum(product);
+    }
+
+    /**
+     * @return the number of Products whose cost is kept
+     */
+    int size() {
+        return costs.size();
+    }
+
+    private double sum(Product product) {
+        double total = 0;
+        for (Part part : product.getAllAssociatedParts()) {
+            total += priceOf.applyAsDouble(part);
+        }
+        return total;
+    }
+}
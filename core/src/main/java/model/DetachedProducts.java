@@ -0,0 +1,33 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of Products held by the Inventory, which hands out a copy of a Product each time one is read.
+ * The Products behind the list are never changed once stored, so the list can be read from any thread; the
+ * copies keep callers from changing them in turn.
+ *
+ * @author Zachary Mollenhour
+ */
+final class DetachedProducts extends AbstractList<Product> implements RandomAccess {
+    private final Product[] products;
+
+    /**
+     * @param products stored Products, which the list takes a copy of
+     */
+    DetachedProducts(List<Product> products) {
+        this.products = products.toArray(new Product[0]);
+    }
+
+    @Override
+    public Product get(int index) {
+        return products[index].copy();
+    }
+
+    @Override
+    public int size() {
+        return products.length;
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe, monotonic source of IDs for one type of record.
+ * The sequence tracks the highest ID handed out or observed so far (its high-water mark), so allocating
+ * the next ID is O(1) and two concurrent callers can never receive the same ID.
+ *
+ * @author Zachary Mollenhour
+ */
+class IdSequence {
+    private final AtomicInteger highWater = new AtomicInteger();
+
+    /**
+     * Reserves the next ID.
+     * Reserved IDs are never handed out again, even if the record they were meant for is never saved.
+     * @return the reserved ID
+     */
+    int next() {
+        return highWater.incrementAndGet();
+    }
+
+    /**
+     * Advances the sequence past an ID that was assigned elsewhere, such as a record loaded from storage.
+     * @param id
+     */
+    void observe(int id) {
+        highWater.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Re-seeds the sequence, for use when recovering the high-water mark from existing records.
+     * The mark never moves backwards, so IDs reserved concurrently with recovery, or since freed by deletes,
+     * are still never handed out again.
+     * @param id the highest ID currently in use
+     */
+    void reset(int id) {
+        highWater.accumulateAndGet(id, Math::max);
+    }
+}
@@ -26,4 +26,9 @@ public class InHouse extends Part {
     public void setMachineId(int machineId) {
         this.machineId = machineId;
     }
+
+    @Override
+    Part copy() {
+        return new InHouse(getId(), getName(), getPrice(), getStock(), getMin(), getMax(), machineId);
+    }
 }
\ No newline at end of file
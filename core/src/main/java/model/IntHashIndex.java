@@ -0,0 +1,163 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table keyed by primitive int IDs.
+ * Unlike a HashMap&lt;Integer, V&gt;, lookups never box the key, so looking a record up by its ID is O(1)
+ * and does not allocate. Collisions are resolved with linear probing and removals use backward-shift
+ * deletion, so there are no tombstones to slow down later probes.
+ *
+ * @param <V> the type of value stored against each ID
+ * @author Zachary Mollenhour
+ */
+class IntHashIndex<V> {
+    private static final int MIN_CAPACITY = 16;
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty index.
+     */
+    IntHashIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty index sized to hold the expected number of IDs without resizing.
+     * @param expectedSize
+     */
+    IntHashIndex(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Looks up the value stored for an ID.
+     * @param key
+     * @return value or null
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a value against an ID, replacing any existing value.
+     * @param key
+     * @param value must not be null
+     * @return the previous value or null
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashIndex does not store null values");
+        }
+        int slot = slot(key);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            rehash((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value stored for an ID.
+     * @param key
+     * @return the removed value or null
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of IDs in the index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left by a removal by pulling later entries of the same probe run back into it.
+     * @param gap
+     */
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = slot(keys[slot]);
+            // Only move the entry if its home slot is not between the gap and its current slot (cyclically).
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table from primitive int keys to primitive int values.
+ * This is the int-valued counterpart of {@link IntHashIndex}, used where the value is itself a number such as a
+ * row position, so that neither keys nor values are ever boxed.
+ *
+ * @author Zachary Mollenhour
+ */
+class IntIntHashIndex {
+    private static final int MIN_CAPACITY = 16;
+    private final int missing;
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty index.
+     * @param missing the value returned for keys that aren't in the index
+     */
+    IntIntHashIndex(int missing) {
+        this.missing = missing;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @param key
+     * @return the value stored for the key, or the missing value
+     */
+    int get(int key) {
+        for (int slot = slot(key); used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Stores a value against a key, replacing any existing value.
+     * @param key
+     * @param value
+     */
+    void put(int key, int value) {
+        int slot = slot(key);
+        for (; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        if (++size > (mask + 1) * 3 / 4) {
+            rehash((mask + 1) << 1);
+        }
+    }
+
+    /**
+     * Removes a key from the index.
+     * @param key
+     * @return the value that was stored for the key, or the missing value
+     */
+    int remove(int key) {
+        for (int slot = slot(key); used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @return the number of keys in the index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every key from the index.
+     */
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        used[gap] = false;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,1364 @@
+package model;
+
+import model.InventoryMetrics.Counter;
+import model.InventoryMetrics.Operation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Application-internal database for parts and products.
+ * For this class, in a future version I would look into also including the ability
+ * to associate parts and products to users, whether it be via a userid or users name
+ * This would allow for tracking of who created what parts and elements
+ *
+ * The Inventory can be changed from any thread. Every method that reads or writes the indexes holds the class
+ * lock, which is the single writer lock: a change touches several indexes at once, and they have to move together.
+ * Readers that don't need the indexes should use {@link #snapshot()}, which returns an immutable copy of the
+ * records that can be read from any thread without holding up writers.
+ *
+ * Parts and Products are handed out as copies: changing one changes nothing in the Inventory until it's passed
+ * back to updatePart or updateProduct, which keeps every index in step.
+ *
+ * The lists returned by getAllParts and getAllProducts are snapshots too. Changes are handed to listeners in
+ * batches, each on the executor it was added with by {@link #addListener(InventoryListener, Executor)}, so a
+ * writer never waits for a listener and a listener never sees a half-made change. The Inventory itself has no
+ * UI dependencies; the UI adapts it through listeners of its own.
+ *
+ * @author Zachary Mollenhour
+ */
+public class Inventory {
+    // The records and their indexes aren't final: opening a store builds a full set on the loading thread and
+    // swaps them all in at once.
+    // Parts are stored column by column and only materialized as objects when they're read.
+    private static PartColumns partColumns = new PartColumns();
+    private static List<Product> products = new ArrayList<>();
+    // The Part columns index themselves by ID; Products get indexes from ID to Product and to position, kept in
+    // step with their list.
+    private static IntHashIndex<Product> productsById = new IntHashIndex<>();
+    private static IntIntHashIndex productRows = new IntIntHashIndex(-1);
+    // Trigram indexes over names, for substring search without scanning every record.
+    private static NameIndex partNames = new NameIndex();
+    private static NameIndex productNames = new NameIndex();
+    // Which Products use each Part, so where-used questions don't have to scan every Product.
+    private static WhereUsedIndex partUses = new WhereUsedIndex();
+    // Each Product's summed Part cost and buildable quantity, recomputed through partUses when a Part changes.
+    private static CostRollup productCosts = new CostRollup(part -> currentPrice(partColumns, part));
+    // Volatile, as buildable quantities are also read without the lock.
+    private static volatile BuildableQuantities buildable =
+            new BuildableQuantities(id -> currentStock(partColumns, id));
+    // The Parts and Products below their minimum stock, worst first.
+    private static final LowStockMonitor lowStock = new LowStockMonitor();
+    // Ordered by price, stock, min and max, for range queries. Built by the first query.
+    private static RecordRanges partRanges = new RecordRanges();
+    private static RecordRanges productRanges = new RecordRanges();
+    // Recent name search results, so refining or backspacing a query doesn't search from scratch.
+    private static final SearchCache partSearches = new SearchCache(Counter.PART_SEARCH_CACHE_HIT,
+            Counter.PART_SEARCH_CACHE_REFINED, Counter.PART_SEARCH_CACHE_MISS);
+    private static final SearchCache productSearches = new SearchCache(Counter.PRODUCT_SEARCH_CACHE_HIT,
+            Counter.PRODUCT_SEARCH_CACHE_REFINED, Counter.PRODUCT_SEARCH_CACHE_MISS);
+    private static final IdSequence partIds = new IdSequence();
+    private static final IdSequence productIds = new IdSequence();
+    // Changes not yet handed to the listeners, and the snapshots they lead to once they've been taken.
+    private static ListChange partChanges = new ListChange();
+    private static ListChange productChanges = new ListChange();
+    private static List<Part> partSnapshot;
+    private static List<Product> productSnapshot;
+    private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private static int batchDepth;
+    private static volatile long version;
+    private static volatile InventorySnapshot latestSnapshot;
+    private static InventoryStore store;
+
+    private Inventory() {
+    }
+
+    /**
+     * Loads the Inventory from a store and then keeps the store up to date with every change.
+     * The stored records, and every index over them, are built on the calling thread without holding the lock.
+     * They then replace the Inventory's contents in one step, so this is meant to be called once, at startup,
+     * before anything has been added to the Inventory.
+     * @param newStore
+     * @throws IOException if the store can't be read
+     */
+    public static void open(InventoryStore newStore) throws IOException {
+        Recovered recovered = new Recovered();
+        newStore.recover(recovered);
+        recovered.build();
+        install(recovered, newStore);
+    }
+
+    /**
+     * Loads the Inventory from a store in the same way as open, but on a background thread.
+     * This lets the UI come up before a large catalog has finished loading. Listeners are told about the loaded
+     * records on their own executors, and the caller can react to the future on whichever thread it needs.
+     * @param newStore
+     * @return a future that completes once the Inventory is loaded, or fails if the store can't be read
+     */
+    public static CompletableFuture<Void> openAsync(InventoryStore newStore) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                open(newStore);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Swaps the recovered records and their indexes in for the Inventory's own, and then attaches the store
+     * they came from. Everything was built beforehand, so the lock is only held for the swap.
+     * @param recovered
+     * @param newStore
+     */
+    private static synchronized void install(Recovered recovered, InventoryStore newStore) {
+        batch(() -> {
+            partColumns = recovered.partColumns;
+            products = recovered.productList;
+            productsById = recovered.productsById;
+            productRows = recovered.productRows;
+            partNames = recovered.partNames;
+            productNames = recovered.productNames;
+            partUses = recovered.partUses;
+            productCosts = recovered.productCosts;
+            buildable = recovered.buildable;
+            lowStock.adopt(recovered.lowStock);
+            partRanges = new RecordRanges();
+            productRanges = new RecordRanges();
+            invalidatePartSearches();
+            invalidateProductSearches();
+            partChanges.replacedAll();
+            productChanges.replacedAll();
+            partsChanged();
+            productsChanged();
+        });
+        partIds.reset(recovered.maxPartId);
+        productIds.reset(recovered.maxProductId);
+        store = newStore;
+    }
+
+    /**
+     * Flushes and closes the store, if the Inventory was opened with one.
+     * @throws IOException
+     */
+    public static synchronized void close() throws IOException {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+
+    /**
+     * Inserts a new Part into the Inventory.
+     * @param newPart
+     */
+    public static synchronized void addPart(Part newPart) {
+        long start = InventoryMetrics.start();
+        try {
+            persist(target -> target.putPart(newPart));
+            partColumns.add(newPart);
+            lowStock.partChanged(newPart);
+            partRanges.put(newPart);
+            partChanges.added(partColumns.size() - 1, partColumns.size());
+            partsChanged();
+            partNames.add(newPart.getId(), newPart.getName());
+            invalidatePartSearches();
+            partRollupsChanged(newPart.getId());
+            partIds.observe(newPart.getId());
+            compactIfDue();
+        } finally {
+            InventoryMetrics.record(Operation.ADD_PART, start);
+        }
+    }
+
+    /**
+     * Looks up a Part by ID.
+     * @param partId
+     * @return part or null
+     */
+    public static synchronized Part lookupPart(int partId) {
+        long start = InventoryMetrics.start();
+        try {
+            int row = partColumns.rowOf(partId);
+            return row < 0 ? null : partColumns.get(row);
+        } finally {
+            InventoryMetrics.record(Operation.LOOKUP_PART, start);
+        }
+    }
+
+    /**
+     * Filters the Parts Inventory by a user-provided string.
+     * Part names are matched in a case-insensitive fashion into a new list and returned.
+     * @param partName
+     * @return result
+     */
+    public static synchronized List<Part> lookupPart(String partName) {
+        long start = InventoryMetrics.start();
+        try {
+            List<Part> result = new ArrayList<>();
+            partNames.search(partName, id -> result.add(partColumns.get(partColumns.rowOf(id))));
+            return result;
+        } finally {
+            InventoryMetrics.record(Operation.LOOKUP_PART_BY_NAME, start);
+        }
+    }
+
+    /**
+     * Finds the Parts whose price, stock, min or max is within a range.
+     * Parts are kept in an ordered index on each field, so this costs O(log n + k) for k matches. The first call
+     * builds the indexes by sorting every Part; after that they're kept up to date as Parts change.
+     * @param field the field to compare
+     * @param from the lowest value to match
+     * @param to the highest value to match
+     * @return the matching Parts, in ascending order of the field and then ID
+     */
+    public static synchronized List<Part> lookupPartsInRange(RangeField field, double from, double to) {
+        long start = InventoryMetrics.start();
+        try {
+            if (!partRanges.isLoaded()) {
+                partRanges.loadParts(currentParts());
+            }
+            List<Part> result = new ArrayList<>();
+            partRanges.search(field, from, to, id -> result.add(partColumns.get(partColumns.rowOf(id))));
+            return result;
+        } finally {
+            InventoryMetrics.record(Operation.LOOKUP_PARTS_IN_RANGE, start);
+        }
+    }
+
+    /**
+     * Updates a Part.
+     * @param index the Part's position in getAllParts
+     * @param newPart
+     *
+     */
+    public static synchronized void updatePart(int index, Part newPart) {
+        long start = InventoryMetrics.start();
+        try {
+            replacePart(index, newPart);
+        } finally {
+            InventoryMetrics.record(Operation.UPDATE_PART, start);
+        }
+    }
+
+    /**
+     * Updates the Part with the same ID as the new one, wherever it is in the Inventory.
+     * The Part is found through the ID index, so this doesn't depend on how a table of Parts is sorted or filtered.
+     * @param newPart
+     * @return whether there was a Part with the ID to update
+     */
+    public static synchronized boolean updatePart(Part newPart) {
+        long start = InventoryMetrics.start();
+        try {
+            int row = partColumns.rowOf(newPart.getId());
+            if (row < 0) {
+                return false;
+            }
+            replacePart(row, newPart);
+            return true;
+        } finally {
+            InventoryMetrics.record(Operation.UPDATE_PART, start);
+        }
+    }
+
+    private static void replacePart(int row, Part newPart) {
+        Part oldPart = partColumns.get(row);
+        persist(target -> {
+            if (oldPart.getId() != newPart.getId()) {
+                target.removePart(oldPart.getId());
+            }
+            target.putPart(newPart);
+        });
+        partColumns.set(row, newPart);
+        if (oldPart.getId() != newPart.getId()) {
+            lowStock.partRemoved(oldPart.getId());
+            partRanges.remove(oldPart.getId());
+        }
+        lowStock.partChanged(newPart);
+        partRanges.put(newPart);
+        partChanges.replaced(row, partColumns.size());
+        partsChanged();
+        partNames.replace(oldPart.getId(), newPart.getId(), newPart.getName());
+        invalidatePartSearches();
+        if (oldPart.getPrice() != newPart.getPrice() || oldPart.getStock() != newPart.getStock()
+                || oldPart.getId() != newPart.getId()) {
+            partRollupsChanged(oldPart.getId());
+            if (oldPart.getId() != newPart.getId()) {
+                partRollupsChanged(newPart.getId());
+            }
+        }
+        partIds.observe(newPart.getId());
+        compactIfDue();
+    }
+
+    /**
+     * Deletes a Part.
+     * The last Part is moved into the deleted one's place, so deleting costs the same wherever the Part is.
+     * @param selectedPart
+     */
+    public static synchronized boolean deletePart(Part selectedPart) {
+        long start = InventoryMetrics.start();
+        try {
+            int row = partColumns.rowOf(selectedPart.getId());
+            if (row < 0) {
+                return false;
+            }
+            persist(target -> target.removePart(selectedPart.getId()));
+            int last = partColumns.size() - 1;
+            int movedId = partColumns.id(last);
+            partColumns.remove(row);
+            lowStock.partRemoved(selectedPart.getId());
+            partRanges.remove(selectedPart.getId());
+            if (row != last) {
+                partChanges.replaced(row, last + 1);
+                partNames.removeAndMove(selectedPart.getId(), movedId);
+            } else {
+                partNames.remove(selectedPart.getId());
+            }
+            partChanges.removed(last, last);
+            partsChanged();
+            invalidatePartSearches();
+            partRollupsChanged(selectedPart.getId());
+            compactIfDue();
+            return true;
+        } finally {
+            InventoryMetrics.record(Operation.DELETE_PART, start);
+        }
+    }
+
+    /**
+     * Inserts several new Parts into the Inventory as one batch.
+     * @param newParts
+     */
+    public static synchronized void addParts(Collection<? extends Part> newParts) {
+        batch(() -> newParts.forEach(Inventory::addPart));
+    }
+
+    /**
+     * Deletes several Parts at once.
+     * The remaining Parts are moved up in a single pass, however many are deleted, and listeners see the whole
+     * deletion as one change.
+     * @param selectedParts
+     * @return the number of Parts deleted
+     */
+    public static synchronized int deleteParts(Collection<? extends Part> selectedParts) {
+        long start = InventoryMetrics.start();
+        try {
+            int[] rows = new int[selectedParts.size()];
+            int count = 0;
+            for (Part part : selectedParts) {
+                int row = partColumns.rowOf(part.getId());
+                if (row >= 0) {
+                    rows[count++] = row;
+                }
+            }
+            Arrays.sort(rows, 0, count);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique == 0 || rows[unique - 1] != rows[i]) {
+                    rows[unique++] = rows[i];
+                }
+            }
+            if (unique == 0) {
+                return 0;
+            }
+            int[] deletedRows = Arrays.copyOf(rows, unique);
+            int[] deletedIds = new int[unique];
+            for (int i = 0; i < unique; i++) {
+                deletedIds[i] = partColumns.id(deletedRows[i]);
+            }
+            persist(target -> {
+                for (int id : deletedIds) {
+                    target.removePart(id);
+                }
+            });
+            int sizeBefore = partColumns.size();
+            partColumns.removeAll(deletedRows);
+            for (int id : deletedIds) {
+                lowStock.partRemoved(id);
+                partRanges.remove(id);
+            }
+            // Recorded from the last row back, so each removal leaves the rows before it where they were.
+            for (int i = unique - 1; i >= 0; i--) {
+                partChanges.removed(deletedRows[i], sizeBefore - (unique - i));
+            }
+            partsChanged();
+            for (int id : deletedIds) {
+                partNames.remove(id);
+                partRollupsChanged(id);
+            }
+            invalidatePartSearches();
+            compactIfDue();
+            return unique;
+        } finally {
+            InventoryMetrics.record(Operation.DELETE_PARTS, start);
+        }
+    }
+
+    /**
+     * @return A read-only snapshot of all Parts.
+     */
+    public static synchronized List<Part> getAllParts() {
+        return currentParts();
+    }
+
+    /**
+     * Filters the Parts Inventory by a user-provided string.
+     * Part names and IDs are matched in a case-insensitive fashion into a new list and returned.
+     * @param searchQuery
+     * @return result
+     */
+    public static List<Part> getFilteredParts(String searchQuery) {
+        return searchParts(searchQuery);
+    }
+
+    /**
+     * Filters the Parts Inventory by a user-provided string into a new list.
+     * Part names and IDs are matched in the same way as getFilteredParts. Repeating a query is answered from the
+     * search cache, so each caller still gets a list of its own.
+     * @param searchQuery
+     * @return result
+     */
+    public static synchronized List<Part> searchParts(String searchQuery) {
+        long start = InventoryMetrics.start();
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        try {
+            List<Part> result = matchParts(searchQuery);
+            event.end("Parts", searchQuery, result.size(), partSearches.lastOutcome());
+            return result;
+        } finally {
+            InventoryMetrics.record(Operation.SEARCH_PARTS, start);
+        }
+    }
+
+    private static List<Part> matchParts(String searchQuery) {
+        int[] nameMatches = partSearches.find(searchQuery, partNames);
+        // A query too large to be an ID is only matched against names.
+        int lookupId = Validator.parsePositiveInteger(searchQuery);
+        List<Part> result = new ArrayList<>(nameMatches.length + 1);
+        Part foundPart = lookupId < 0 ? null : Inventory.lookupPart(lookupId);
+        if (foundPart != null) {
+            result.add(foundPart);
+        }
+        // There's a chance that the name matches include the Part found earlier, so ensure it's not duplicated.
+        // Parts are materialized afresh for each search, so callers never share them through the cache.
+        for (int id : nameMatches) {
+            if (id != lookupId) {
+                result.add(partColumns.get(partColumns.rowOf(id)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts a new Product into the Inventory.
+     * The Inventory keeps a copy, so later changes to the Product itself don't affect it.
+     * @param product
+     */
+    public static synchronized void addProduct(Product product) {
+        long start = InventoryMetrics.start();
+        try {
+            Product newProduct = product.copy();
+            persist(target -> target.putProduct(newProduct));
+            products.add(newProduct);
+            lowStock.productChanged(newProduct);
+            productChanges.added(products.size() - 1, products.size());
+            productsChanged();
+            productsById.put(newProduct.getId(), newProduct);
+            productRows.put(newProduct.getId(), products.size() - 1);
+            productRanges.put(newProduct);
+            productNames.add(newProduct.getId(), newProduct.getName());
+            partUses.add(newProduct);
+            productRollupsChanged(newProduct);
+            invalidateProductSearches();
+            productIds.observe(newProduct.getId());
+            compactIfDue();
+        } finally {
+            InventoryMetrics.record(Operation.ADD_PRODUCT, start);
+        }
+    }
+
+    /**
+     * Looks up a Product by ID.
+     * @param productId
+     *
+     */
+    public static synchronized Product lookupProduct(int productId) {
+        long start = InventoryMetrics.start();
+        try {
+            Product product = productsById.get(productId);
+            return product == null ? null : product.copy();
+        } finally {
+            InventoryMetrics.record(Operation.LOOKUP_PRODUCT, start);
+        }
+    }
+
+    /**
+     * Filters the Products Inventory by a user-provided string.
+     * Product names are matched in a case-insensitive fashion into a new list and returned.
+     * @param productName
+     */
+    public static synchronized List<Product> lookupProduct(String productName) {
+        long start = InventoryMetrics.start();
+        try {
+            List<Product> result = new ArrayList<>();
+            productNames.search(productName, id -> result.add(productsById.get(id)));
+            return new DetachedProducts(result);
+        } finally {
+            InventoryMetrics.record(Operation.LOOKUP_PRODUCT_BY_NAME, start);
+        }
+    }
+
+    /**
+     * Finds the Products whose price, stock, min or max is within a range.
+     * Products are kept in an ordered index on each field, so this costs O(log n + k) for k matches. The first call
+     * builds the indexes by sorting every Product; after that they're kept up to date as Products change.
+     * @param field the field to compare
+     * @param from the lowest value to match
+     * @param to the highest value to match
+     * @return the matching Products, in ascending order of the field and then ID
+     */
+    public static synchronized List<Product> lookupProductsInRange(RangeField field, double from, double to) {
+        long start = InventoryMetrics.start();
+        try {
+            if (!productRanges.isLoaded()) {
+                productRanges.loadProducts(products);
+            }
+            List<Product> result = new ArrayList<>();
+            productRanges.search(field, from, to, id -> result.add(productsById.get(id)));
+            return new DetachedProducts(result);
+        } finally {
+            InventoryMetrics.record(Operation.LOOKUP_PRODUCTS_IN_RANGE, start);
+        }
+    }
+
+    /**
+     * Updates a Product.
+     * @param newProduct
+     * @param index the Product's position in getAllProducts
+     */
+    public static synchronized void updateProduct(int index, Product newProduct) {
+        long start = InventoryMetrics.start();
+        try {
+            replaceProduct(index, newProduct);
+        } finally {
+            InventoryMetrics.record(Operation.UPDATE_PRODUCT, start);
+        }
+    }
+
+    /**
+     * Updates the Product with the same ID as the new one, wherever it is in the Inventory.
+     * The Product is found through the ID index, so this doesn't depend on how a table of Products is sorted or
+     * filtered.
+     * @param newProduct
+     * @return whether there was a Product with the ID to update
+     */
+    public static synchronized boolean updateProduct(Product newProduct) {
+        long start = InventoryMetrics.start();
+        try {
+            int index = productRows.get(newProduct.getId());
+            if (index < 0) {
+                return false;
+            }
+            replaceProduct(index, newProduct);
+            return true;
+        } finally {
+            InventoryMetrics.record(Operation.UPDATE_PRODUCT, start);
+        }
+    }
+
+    private static void replaceProduct(int index, Product product) {
+        Product newProduct = product.copy();
+        Product oldProduct = products.get(index);
+        persist(target -> {
+            if (oldProduct.getId() != newProduct.getId()) {
+                target.removeProduct(oldProduct.getId());
+            }
+            target.putProduct(newProduct);
+        });
+        products.set(index, newProduct);
+        if (oldProduct.getId() != newProduct.getId()) {
+            lowStock.productRemoved(oldProduct.getId());
+        }
+        lowStock.productChanged(newProduct);
+        productChanges.replaced(index, products.size());
+        productsChanged();
+        unindexProduct(oldProduct, index);
+        productsById.put(newProduct.getId(), newProduct);
+        productRows.put(newProduct.getId(), index);
+        productRanges.put(newProduct);
+        productNames.replace(oldProduct.getId(), newProduct.getId(), newProduct.getName());
+        partUses.remove(oldProduct);
+        partUses.add(newProduct);
+        productCosts.remove(oldProduct);
+        buildable.remove(oldProduct);
+        productRollupsChanged(newProduct);
+        invalidateProductSearches();
+        productIds.observe(newProduct.getId());
+        compactIfDue();
+    }
+
+    /**
+     * Deletes the Product with the same ID as the selected one.
+     * The last Product is moved into the deleted one's place, so deleting costs the same wherever the Product is.
+     * @param product
+     */
+    public static synchronized boolean deleteProduct(Product product) {
+        long start = InventoryMetrics.start();
+        try {
+            int index = productRows.get(product.getId());
+            if (index < 0) {
+                return false;
+            }
+            Product selectedProduct = products.get(index);
+            persist(target -> target.removeProduct(selectedProduct.getId()));
+            unindexProduct(selectedProduct, index);
+            lowStock.productRemoved(selectedProduct.getId());
+            int last = products.size() - 1;
+            Product moved = products.remove(last);
+            if (index != last) {
+                products.set(index, moved);
+                productRows.put(moved.getId(), index);
+                productChanges.replaced(index, last + 1);
+                productNames.removeAndMove(selectedProduct.getId(), moved.getId());
+            } else {
+                productNames.remove(selectedProduct.getId());
+            }
+            productChanges.removed(last, last);
+            partUses.remove(selectedProduct);
+            productCosts.remove(selectedProduct);
+            buildable.remove(selectedProduct);
+            productsChanged();
+            invalidateProductSearches();
+            compactIfDue();
+            return true;
+        } finally {
+            InventoryMetrics.record(Operation.DELETE_PRODUCT, start);
+        }
+    }
+
+    /**
+     * Inserts several new Products into the Inventory as one batch.
+     * @param newProducts
+     */
+    public static synchronized void addProducts(Collection<? extends Product> newProducts) {
+        batch(() -> newProducts.forEach(Inventory::addProduct));
+    }
+
+    /**
+     * Deletes several Products at once, each found by its ID.
+     * The remaining Products are moved up in a single pass, and listeners see the whole deletion as one change.
+     * @param selectedProducts
+     * @return the number of Products deleted
+     */
+    public static synchronized int deleteProducts(Collection<? extends Product> selectedProducts) {
+        long start = InventoryMetrics.start();
+        try {
+            IntIntHashIndex doomed = new IntIntHashIndex(-1);
+            int[] doomedIds = new int[selectedProducts.size()];
+            int doomedCount = 0;
+            for (Product product : selectedProducts) {
+                if (productRows.get(product.getId()) >= 0 && doomed.get(product.getId()) < 0) {
+                    doomed.put(product.getId(), 0);
+                    doomedIds[doomedCount++] = product.getId();
+                }
+            }
+            if (doomedCount == 0) {
+                return 0;
+            }
+            int persistedCount = doomedCount;
+            persist(target -> {
+                for (int i = 0; i < persistedCount; i++) {
+                    target.removeProduct(doomedIds[i]);
+                }
+            });
+            List<Product> deleted = new ArrayList<>();
+            int size = products.size();
+            int first = size;
+            // Recorded from the last row back, so each removal leaves the rows before it where they were.
+            for (int index = products.size() - 1; index >= 0; index--) {
+                Product product = products.get(index);
+                if (doomed.get(product.getId()) >= 0) {
+                    productChanges.removed(index, --size);
+                    unindexProduct(product, index);
+                    lowStock.productRemoved(product.getId());
+                    deleted.add(product);
+                    first = index;
+                }
+            }
+            products.removeIf(product -> doomed.get(product.getId()) >= 0);
+            for (int index = first; index < products.size(); index++) {
+                productRows.put(products.get(index).getId(), index);
+            }
+            for (Product product : deleted) {
+                productNames.remove(product.getId());
+                partUses.remove(product);
+                productCosts.remove(product);
+                buildable.remove(product);
+            }
+            productsChanged();
+            invalidateProductSearches();
+            compactIfDue();
+            return deleted.size();
+        } finally {
+            InventoryMetrics.record(Operation.DELETE_PRODUCTS, start);
+        }
+    }
+
+    /**
+     * Looks up the Products that have a Part associated with them.
+     * This reads a reverse index, so it costs time in proportion to the number of Products found.
+     * @param partId
+     * @return the Products using the Part, in the order they started using it
+     */
+    public static synchronized List<Product> lookupProductsUsingPart(int partId) {
+        return new DetachedProducts(partUses.productsUsing(partId));
+    }
+
+    /**
+     * @param partId
+     * @return whether any Product has the Part associated with it
+     */
+    public static synchronized boolean isPartInUse(int partId) {
+        return partUses.isUsed(partId);
+    }
+
+    /**
+     * Gets the cost of a Product's associated Parts, at their current prices in the Inventory.
+     * A Part associated more than once is counted once per association, and a Part no longer in the Inventory at
+     * the price it had when it was associated. The Product needn't be in the Inventory, so this sums its Parts.
+     * @param product
+     * @return the summed cost of the Product's Parts
+     */
+    public static synchronized double getPartsCost(Product product) {
+        return productCosts.cost(product);
+    }
+
+    /**
+     * Gets the cost of the associated Parts of a Product in the Inventory, in the same way as for a Product.
+     * Costs are kept up to date as Parts change, so this is O(1).
+     * @param productId
+     * @return the summed cost of the Product's Parts, or 0 if there's no Product with the ID
+     */
+    public static synchronized double getPartsCost(int productId) {
+        Product product = productsById.get(productId);
+        return product == null ? 0 : productCosts.cost(product);
+    }
+
+    /**
+     * Gets how many units of a Product could be built from the Parts in stock: the smallest, over its distinct
+     * associated Parts, of the Part's stock divided by the number of times the Product lists it.
+     * The Product needn't be in the Inventory, so this works it out from its Parts.
+     * @param product
+     * @return the number of units that could be built, or 0 if the Product has no associated Parts
+     */
+    public static synchronized int getBuildableQuantity(Product product) {
+        return buildable.compute(product);
+    }
+
+    /**
+     * Gets how many units of a Product in the Inventory could be built, in the same way as for a Product.
+     * Quantities are kept up to date as Parts and Products change, and are read without the lock, so this is O(1)
+     * and never waits for a writer.
+     * @param productId
+     * @return the number of units that could be built, or 0 if there's no Product with the ID
+     */
+    public static int getBuildableQuantity(int productId) {
+        return buildable.quantity(productId);
+    }
+
+    /**
+     * Brings the roll-ups of every Product using a Part up to date, after the Part changed.
+     * @param partId
+     */
+    private static void partRollupsChanged(int partId) {
+        boolean rowsChanged = false;
+        for (Product product : partUses.productsUsing(partId)) {
+            rowsChanged |= updateRollups(product);
+        }
+        if (rowsChanged) {
+            productsChanged();
+        }
+    }
+
+    /**
+     * Brings a Product's roll-ups up to date, after the Product or its Parts changed.
+     * @param product
+     */
+    private static void productRollupsChanged(Product product) {
+        if (updateRollups(product)) {
+            productsChanged();
+        }
+    }
+
+    /**
+     * Recomputes a Product's roll-ups. A change to its buildable quantity is recorded as a change to its row, so a
+     * table showing the quantity redraws it once listeners are told.
+     * @param product
+     * @return whether the Product's row was recorded as changed
+     */
+    private static boolean updateRollups(Product product) {
+        productCosts.update(product);
+        if (!buildable.update(product)) {
+            return false;
+        }
+        int index = productRows.get(product.getId());
+        if (index < 0 || products.get(index) != product) {
+            return false;
+        }
+        productChanges.replaced(index, products.size());
+        return true;
+    }
+
+    /**
+     * @param columns the Parts in the Inventory
+     * @param partId
+     * @return the Part's stock in the Inventory, or 0 if it's no longer in the Inventory
+     */
+    private static int currentStock(PartColumns columns, int partId) {
+        int row = columns.rowOf(partId);
+        return row < 0 ? 0 : columns.stock(row);
+    }
+
+    /**
+     * @param columns the Parts in the Inventory
+     * @param part a Part as it was associated with a Product
+     * @return the Part's price in the Inventory, or its own price if it's no longer in the Inventory
+     */
+    private static double currentPrice(PartColumns columns, Part part) {
+        int row = columns.rowOf(part.getId());
+        return row < 0 ? part.getPrice() : columns.price(row);
+    }
+
+    /**
+     * Drops a Product from the ID and range indexes, unless its ID has since been taken over by a different Product.
+     * @param product
+     * @param index the Product's position
+     */
+    private static void unindexProduct(Product product, int index) {
+        if (productsById.get(product.getId()) == product) {
+            productsById.remove(product.getId());
+            productRanges.remove(product.getId());
+        }
+        if (productRows.get(product.getId()) == index) {
+            productRows.remove(product.getId());
+        }
+    }
+
+    /**
+     * @return A read-only snapshot of all Products.
+     */
+    public static synchronized List<Product> getAllProducts() {
+        return currentProducts();
+    }
+
+    /**
+     * Filters the Products Inventory by a user-provided string.
+     * Product names and IDs are matched in a case-insensitive fashion into a new list and returned.
+     * @param searchQuery
+     * @return result
+     */
+    public static List<Product> getFilteredProducts(String searchQuery) {
+        return searchProducts(searchQuery);
+    }
+
+    /**
+     * Filters the Products Inventory by a user-provided string into a new list.
+     * Product names and IDs are matched in the same way as getFilteredProducts.
+     * @param searchQuery
+     * @return result
+     */
+    public static synchronized List<Product> searchProducts(String searchQuery) {
+        long start = InventoryMetrics.start();
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        try {
+            List<Product> result = matchProducts(searchQuery);
+            event.end("Products", searchQuery, result.size(), productSearches.lastOutcome());
+            return new DetachedProducts(result);
+        } finally {
+            InventoryMetrics.record(Operation.SEARCH_PRODUCTS, start);
+        }
+    }
+
+    private static List<Product> matchProducts(String searchQuery) {
+        int[] nameMatches = productSearches.find(searchQuery, productNames);
+        // If the search query is a positive integer, we want to lookup a Product whose ID matches.
+        // However, it's possible that the product name also has digits, so we want to return those as well.
+        int lookupId = Validator.parsePositiveInteger(searchQuery);
+        List<Product> result = new ArrayList<>(nameMatches.length + 1);
+        Product foundProduct = lookupId < 0 ? null : productsById.get(lookupId);
+        if (foundProduct != null) {
+            result.add(foundProduct);
+        }
+        for (int id : nameMatches) {
+            if (id != lookupId) {
+                result.add(productsById.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forgets cached Part searches, since a change to the Parts may have changed their results.
+     */
+    private static void invalidatePartSearches() {
+        partSearches.invalidate();
+    }
+
+    /**
+     * Forgets cached Product searches, since a change to the Products may have changed their results.
+     */
+    private static void invalidateProductSearches() {
+        productSearches.invalidate();
+    }
+
+    /**
+     * Makes several changes to the Inventory as one batch.
+     * No other writer can change the Inventory until the batch is done, and listeners are told about all of its
+     * changes together, once it's finished. Batches can be nested, in which case listeners are told when the
+     * outermost one finishes.
+     * @param changes
+     */
+    public static synchronized void batch(Runnable changes) {
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            if (--batchDepth == 0) {
+                notifyListeners();
+            }
+        }
+    }
+
+    /**
+     * Starts telling a listener about changes to the Inventory.
+     * The listener is called on the executor, which should run tasks in order. Changes made while a call is
+     * waiting to run are collected and handed over together when it does, so a slow listener only falls behind
+     * by one call. An executor of Runnable::run tells the listener straight away, on the thread that made the
+     * change.
+     * @param listener
+     * @param executor
+     */
+    public static synchronized void addListener(InventoryListener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    /**
+     * Stops telling a listener about changes to the Inventory.
+     * @param listener
+     */
+    public static synchronized void removeListener(InventoryListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Gets the Parts furthest below their minimum stock.
+     * Shortages are kept in a priority queue as stock changes, so this costs O(limit log limit) however large the
+     * catalog is.
+     * @param limit the most Parts to return
+     * @return Parts whose stock is below their minimum, worst shortfall first
+     */
+    public static synchronized List<Part> getLowStockParts(int limit) {
+        int[] ids = lowStock.worstParts(limit);
+        List<Part> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(partColumns.get(partColumns.rowOf(id)));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the Products furthest below their minimum stock.
+     * Shortages are kept in a priority queue as stock changes, so this costs O(limit log limit) however large the
+     * catalog is.
+     * @param limit the most Products to return
+     * @return Products whose stock is below their minimum, worst shortfall first
+     */
+    public static synchronized List<Product> getLowStockProducts(int limit) {
+        int[] ids = lowStock.worstProducts(limit);
+        List<Product> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(productsById.get(id));
+        }
+        return new DetachedProducts(result);
+    }
+
+    /**
+     * Starts telling a listener about the worst stock shortages whenever they change.
+     * The listener is called on the executor, once for a batch of changes, in the same way as the listeners
+     * added by addListener.
+     * @param limit the most Parts, and the most Products, to hand the listener
+     * @param listener
+     * @param executor
+     */
+    public static synchronized void addLowStockListener(int limit, LowStockListener listener, Executor executor) {
+        lowStock.addListener(limit, listener, executor);
+    }
+
+    /**
+     * Stops telling a listener about stock shortages.
+     * @param listener
+     */
+    public static synchronized void removeLowStockListener(LowStockListener listener) {
+        lowStock.removeListener(listener);
+    }
+
+    /**
+     * Captures every Part and Product as they stand now.
+     * Unchanged state is captured only once, so repeated calls between changes return the same snapshot without
+     * waiting for the lock.
+     * @return an immutable snapshot
+     */
+    public static InventorySnapshot snapshot() {
+        InventorySnapshot latest = latestSnapshot;
+        if (latest != null && latest.getVersion() == version) {
+            return latest;
+        }
+        synchronized (Inventory.class) {
+            if (latestSnapshot == null || latestSnapshot.getVersion() != version) {
+                latestSnapshot = new InventorySnapshot(version, currentParts(), currentProducts());
+            }
+            return latestSnapshot;
+        }
+    }
+
+    /**
+     * @return an immutable list of the Parts as they stand now
+     */
+    private static List<Part> currentParts() {
+        if (partSnapshot == null) {
+            partSnapshot = partColumns.snapshot();
+        }
+        return partSnapshot;
+    }
+
+    /**
+     * @return an immutable list of the Products as they stand now
+     */
+    private static List<Product> currentProducts() {
+        if (productSnapshot == null) {
+            productSnapshot = new DetachedProducts(products);
+        }
+        return productSnapshot;
+    }
+
+    /**
+     * Copies every Product into an immutable record, for handing to another thread.
+     * The caller must hold the Inventory lock, so no Product changes while it's copied.
+     * @return a list of records in Inventory order
+     */
+    private static List<ProductRecord> productRecords() {
+        List<ProductRecord> records = new ArrayList<>(products.size());
+        for (Product product : products) {
+            records.add(new ProductRecord(product));
+        }
+        return records;
+    }
+
+    /**
+     * Marks the Part snapshots as stale and schedules the listeners to catch up.
+     */
+    private static void partsChanged() {
+        partSnapshot = null;
+        changed();
+    }
+
+    /**
+     * Marks the Product snapshots as stale and schedules the listeners to catch up.
+     */
+    private static void productsChanged() {
+        productSnapshot = null;
+        changed();
+    }
+
+    private static void changed() {
+        version++;
+        if (batchDepth == 0) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Hands every change made since the last call to each listener's pending changes, scheduling the listeners
+     * that aren't already waiting to run.
+     */
+    private static void notifyListeners() {
+        buildable.publish();
+        lowStock.notifyListeners();
+        if (partChanges.isEmpty() && productChanges.isEmpty()) {
+            return;
+        }
+        // Taken here, under the lock, so listeners can pick it up without waiting for the lock themselves.
+        InventorySnapshot latest = subscriptions.isEmpty() ? null : snapshot();
+        for (Subscription subscription : subscriptions) {
+            subscription.changed(partChanges, productChanges, latest);
+        }
+        partChanges = new ListChange();
+        productChanges = new ListChange();
+    }
+
+    /**
+     * @return the current size of each index and cache, by name
+     */
+    static synchronized Map<String, Long> gauges() {
+        Map<String, Long> gauges = new LinkedHashMap<>();
+        gauges.put("parts", (long) partColumns.size());
+        gauges.put("products", (long) products.size());
+        gauges.put("pooledPartStrings", (long) partColumns.pooledStrings());
+        gauges.put("partNameIndexSize", (long) partNames.size());
+        gauges.put("productNameIndexSize", (long) productNames.size());
+        gauges.put("productIdIndexSize", (long) productsById.size());
+        gauges.put("partsInUse", (long) partUses.size());
+        gauges.put("productCosts", (long) productCosts.size());
+        gauges.put("buildableQuantities", (long) buildable.size());
+        gauges.put("lowStockParts", (long) lowStock.lowParts());
+        gauges.put("lowStockProducts", (long) lowStock.lowProducts());
+        gauges.put("partRangeIndexSize", (long) partRanges.size());
+        gauges.put("productRangeIndexSize", (long) productRanges.size());
+        gauges.put("cachedPartSearches", (long) partSearches.size());
+        gauges.put("cachedProductSearches", (long) productSearches.size());
+        gauges.put("listeners", (long) subscriptions.size());
+        return gauges;
+    }
+
+    /**
+     * Forwards a change to the store, if there is one.
+     * Changes are forwarded before they're made in memory, so if the store fails the Inventory is left as it was
+     * rather than ahead of what's stored.
+     * @param change
+     */
+    private static void persist(Consumer<InventoryStore> change) {
+        if (store != null) {
+            change.accept(store);
+        }
+    }
+
+    /**
+     * Compacts the store, if there is one, once it asks to be. Called after a change has been made in memory, so
+     * the compacted contents include it.
+     */
+    private static void compactIfDue() {
+        if (store != null && store.shouldCompact()) {
+            store.compact(currentParts(), productRecords());
+        }
+    }
+
+    /**
+     * Reserves the next available Part ID.
+     * Every call hands out a new ID, so it should only be called when a Part is actually being created.
+     * @return the reserved ID
+     */
+    public static int getNextPartId() {
+        long start = InventoryMetrics.start();
+        try {
+            return partIds.next();
+        } finally {
+            InventoryMetrics.record(Operation.NEXT_PART_ID, start);
+        }
+    }
+
+    /**
+     * Reserves the next available Product ID.
+     * Every call hands out a new ID, so it should only be called when a Product is actually being created.
+     * @return the reserved ID
+     */
+    public static int getNextProductId() {
+        long start = InventoryMetrics.start();
+        try {
+            return productIds.next();
+        } finally {
+            InventoryMetrics.record(Operation.NEXT_PRODUCT_ID, start);
+        }
+    }
+
+    /**
+     * Re-derives the ID sequences from the records currently in the Inventory.
+     * This is the recovery path for when records have been loaded from storage, so that newly allocated IDs
+     * never collide with persisted ones.
+     */
+    public static synchronized void recoverIdSequences() {
+        int maxPartId = 0;
+        for (int row = 0; row < partColumns.size(); row++) {
+            maxPartId = Math.max(maxPartId, partColumns.id(row));
+        }
+        partIds.reset(maxPartId);
+
+        int maxProductId = 0;
+        for (Product product : products) {
+            maxProductId = Math.max(maxProductId, product.getId());
+        }
+        productIds.reset(maxProductId);
+    }
+
+    /**
+     * Collects the records replayed by a store, so that a record replaced or deleted later in the store's history
+     * is never added to the Inventory, and so that Products are only linked to Parts once every Part is known.
+     * Records are kept in the order they were first put, with a deleted record leaving a null behind.
+     *
+     * Once the store has been replayed, build turns the survivors into a full set of records and indexes, on the
+     * loading thread, ready for install to swap in.
+     */
+    private static final class Recovered implements InventoryStore.Recovery {
+        private final List<Part> parts = new ArrayList<>();
+        private final IntIntHashIndex partPositions = new IntIntHashIndex(-1);
+        private final List<Product> products = new ArrayList<>();
+        private final List<int[]> associatedPartIds = new ArrayList<>();
+        private final IntIntHashIndex productPositions = new IntIntHashIndex(-1);
+        private final PartColumns partColumns = new PartColumns();
+        private final List<Product> productList = new ArrayList<>();
+        private final IntHashIndex<Product> productsById = new IntHashIndex<>();
+        private final IntIntHashIndex productRows = new IntIntHashIndex(-1);
+        private final NameIndex partNames = new NameIndex();
+        private final NameIndex productNames = new NameIndex();
+        private final WhereUsedIndex partUses = new WhereUsedIndex();
+        private final CostRollup productCosts = new CostRollup(part -> currentPrice(partColumns, part));
+        private final BuildableQuantities buildable = new BuildableQuantities(id -> currentStock(partColumns, id));
+        private final LowStockMonitor lowStock = new LowStockMonitor();
+        private int maxPartId;
+        private int maxProductId;
+
+        @Override
+        public void putPart(Part part) {
+            int position = partPositions.get(part.getId());
+            if (position >= 0) {
+                parts.set(position, part);
+            } else {
+                partPositions.put(part.getId(), parts.size());
+                parts.add(part);
+            }
+        }
+
+        @Override
+        public void removePart(int partId) {
+            int position = partPositions.remove(partId);
+            if (position >= 0) {
+                parts.set(position, null);
+            }
+        }
+
+        @Override
+        public void putProduct(Product product, int[] partIds) {
+            int position = productPositions.get(product.getId());
+            if (position >= 0) {
+                products.set(position, product);
+                associatedPartIds.set(position, partIds);
+            } else {
+                productPositions.put(product.getId(), products.size());
+                products.add(product);
+                associatedPartIds.add(partIds);
+            }
+        }
+
+        @Override
+        public void removeProduct(int productId) {
+            int position = productPositions.remove(productId);
+            if (position >= 0) {
+                products.set(position, null);
+                associatedPartIds.set(position, null);
+            }
+        }
+
+        /**
+         * Builds the records and indexes from the surviving records. Nothing here touches the Inventory, so it
+         * runs without the lock.
+         */
+        private void build() {
+            for (Part part : parts) {
+                if (part != null) {
+                    partColumns.add(part);
+                    partNames.add(part.getId(), part.getName());
+                    lowStock.partChanged(part);
+                    maxPartId = Math.max(maxPartId, part.getId());
+                }
+            }
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                if (product == null) {
+                    continue;
+                }
+                for (int partId : associatedPartIds.get(i)) {
+                    int position = partPositions.get(partId);
+                    if (position >= 0) {
+                        product.addAssociatedPart(parts.get(position));
+                    }
+                }
+                productRows.put(product.getId(), productList.size());
+                productList.add(product);
+                productsById.put(product.getId(), product);
+                productNames.add(product.getId(), product.getName());
+                partUses.add(product);
+                productCosts.update(product);
+                lowStock.productChanged(product);
+                maxProductId = Math.max(maxProductId, product.getId());
+            }
+            buildable.computeAll(productList);
+        }
+    }
+
+    /**
+     * A listener, the executor it's called on, and the changes it hasn't been told about yet.
+     */
+    private static final class Subscription implements Runnable {
+        private final InventoryListener listener;
+        private final Executor executor;
+        private ListChange partChange = new ListChange();
+        private ListChange productChange = new ListChange();
+        private InventorySnapshot latest;
+        private boolean scheduled;
+
+        private Subscription(InventoryListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * Adds changes to those waiting for the listener, along with the snapshot they lead to. Called with the
+         * class lock held.
+         */
+        private synchronized void changed(ListChange parts, ListChange products, InventorySnapshot snapshot) {
+            partChange.merge(parts);
+            productChange.merge(products);
+            latest = snapshot;
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Tells the listener about the waiting changes. The snapshot was taken by the writer that made the last of
+         * them, so it matches the changes exactly, and the listener never waits for the class lock, which a long
+         * batch on another thread may be holding.
+         */
+        @Override
+        public void run() {
+            ListChange parts;
+            ListChange products;
+            InventorySnapshot snapshot;
+            synchronized (this) {
+                scheduled = false;
+                parts = partChange;
+                products = productChange;
+                snapshot = latest;
+                partChange = new ListChange();
+                productChange = new ListChange();
+                latest = null;
+            }
+            if (subscriptions.contains(this)) {
+                listener.inventoryChanged(parts, products, snapshot);
+            }
+        }
+    }
+}
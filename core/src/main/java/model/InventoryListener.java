@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Receives the changes made to the Inventory, in batches.
+ * Each call covers every change made since the previous one, along with a snapshot taken after the last of them,
+ * so a listener always sees a consistent state, whichever thread made the changes.
+ *
+ * @author Zachary Mollenhour
+ */
+public interface InventoryListener {
+    /**
+     * @param partChange the extent of the changes to the Parts, which may be empty
+     * @param productChange the extent of the changes to the Products, which may be empty
+     * @param snapshot the Inventory after the changes
+     */
+    void inventoryChanged(ListChange partChange, ListChange productChange, InventorySnapshot snapshot);
+}
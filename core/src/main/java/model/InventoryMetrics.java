@@ -0,0 +1,381 @@
+package model;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Latency histograms and counters for the Inventory's hot paths and the screens that save to it.
+ *
+ * Recording takes no locks and allocates nothing, so it's cheap enough to leave on everywhere. A timed
+ * operation calls {@link #start()} and then {@link #record(Operation, long)}:
+ * <pre>
+ *     long start = InventoryMetrics.start();
+ *     ...
+ *     InventoryMetrics.record(InventoryMetrics.Operation.LOOKUP_PART, start);
+ * </pre>
+ * Running with -Dinventory.metrics=false switches recording off. The switch is a constant, so the JIT removes
+ * the calls altogether and they cost nothing.
+ *
+ * The metrics are published over JMX and, optionally, dumped periodically as text or JSON. {@link #install()}
+ * sets both up from system properties.
+ *
+ * @author Zachary Mollenhour
+ */
+public class InventoryMetrics {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("inventory.metrics", "true"));
+    private static final LatencyRecorder[] timers = new LatencyRecorder[Operation.values().length];
+    private static final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    static {
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new LatencyRecorder();
+        }
+    }
+
+    private InventoryMetrics() {
+    }
+
+    /**
+     * The operations that are timed.
+     */
+    public enum Operation {
+        LOOKUP_PART, LOOKUP_PART_BY_NAME, LOOKUP_PARTS_IN_RANGE, SEARCH_PARTS, ADD_PART, UPDATE_PART, DELETE_PART,
+        DELETE_PARTS, LOOKUP_PRODUCT, LOOKUP_PRODUCT_BY_NAME, LOOKUP_PRODUCTS_IN_RANGE, SEARCH_PRODUCTS, ADD_PRODUCT,
+        UPDATE_PRODUCT, DELETE_PRODUCT, DELETE_PRODUCTS, NEXT_PART_ID, NEXT_PRODUCT_ID, SAVE_PART, SAVE_PRODUCT
+    }
+
+    /**
+     * The events that are counted.
+     */
+    public enum Counter {
+        PART_SEARCH_CACHE_HIT, PART_SEARCH_CACHE_REFINED, PART_SEARCH_CACHE_MISS,
+        PRODUCT_SEARCH_CACHE_HIT, PRODUCT_SEARCH_CACHE_REFINED, PRODUCT_SEARCH_CACHE_MISS
+    }
+
+    /**
+     * @return whether metrics are being recorded
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts timing an operation.
+     * @return the start time, to pass to record
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finishes timing an operation.
+     * @param operation
+     * @param start the time returned by start
+     */
+    public static void record(Operation operation, long start) {
+        if (ENABLED) {
+            timers[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts an event.
+     * @param counter
+     */
+    public static void count(Counter counter) {
+        if (ENABLED) {
+            counters.incrementAndGet(counter.ordinal());
+        }
+    }
+
+    /**
+     * @return latency statistics for each timed operation
+     */
+    public static List<TimerStats> timers() {
+        List<TimerStats> stats = new ArrayList<>(timers.length);
+        for (Operation operation : Operation.values()) {
+            stats.add(new TimerStats(operation.name(), timers[operation.ordinal()]));
+        }
+        return stats;
+    }
+
+    /**
+     * @return the value of each counter
+     */
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            values.put(counter.name(), counters.get(counter.ordinal()));
+        }
+        return values;
+    }
+
+    /**
+     * @return the current size of each of the Inventory's indexes and caches
+     */
+    public static Map<String, Long> gauges() {
+        return Inventory.gauges();
+    }
+
+    /**
+     * @param hit
+     * @param refined
+     * @param miss
+     * @return the share of searches counted as hits, or 0 if there have been none
+     */
+    private static double hitRate(Counter hit, Counter refined, Counter miss) {
+        long hits = counters.get(hit.ordinal());
+        long total = hits + counters.get(refined.ordinal()) + counters.get(miss.ordinal());
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the share of Part searches answered straight from the search cache
+     */
+    public static double partSearchCacheHitRate() {
+        return hitRate(Counter.PART_SEARCH_CACHE_HIT, Counter.PART_SEARCH_CACHE_REFINED,
+                Counter.PART_SEARCH_CACHE_MISS);
+    }
+
+    /**
+     * @return the share of Product searches answered straight from the search cache
+     */
+    public static double productSearchCacheHitRate() {
+        return hitRate(Counter.PRODUCT_SEARCH_CACHE_HIT, Counter.PRODUCT_SEARCH_CACHE_REFINED,
+                Counter.PRODUCT_SEARCH_CACHE_MISS);
+    }
+
+    /**
+     * Zeroes every timer and counter.
+     */
+    public static void reset() {
+        for (LatencyRecorder timer : timers) {
+            timer.reset();
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * @return every metric as human-readable text, one per line, with operations never timed left out
+     */
+    public static String toText() {
+        StringBuilder text = new StringBuilder();
+        for (TimerStats stats : timers()) {
+            if (stats.getCount() > 0) {
+                text.append(String.format(Locale.ROOT, "%-28s count=%d mean=%.1fus p50=%.1fus p90=%.1fus "
+                                + "p99=%.1fus max=%.1fus%n", stats.getName(), stats.getCount(),
+                        stats.getMeanNanos() / 1e3, stats.getP50Nanos() / 1e3, stats.getP90Nanos() / 1e3,
+                        stats.getP99Nanos() / 1e3, stats.getMaxNanos() / 1e3));
+            }
+        }
+        counters().forEach((name, value) -> text.append(String.format("%-28s %d%n", name, value)));
+        gauges().forEach((name, value) -> text.append(String.format("%-28s %d%n", name, value)));
+        text.append(String.format(Locale.ROOT, "%-28s %.3f%n", "partSearchCacheHitRate",
+                partSearchCacheHitRate()));
+        text.append(String.format(Locale.ROOT, "%-28s %.3f%n", "productSearchCacheHitRate",
+                productSearchCacheHitRate()));
+        return text.toString();
+    }
+
+    /**
+     * @return every metric as a single-line JSON object
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{\"enabled\":").append(ENABLED).append(",\"timers\":{");
+        List<TimerStats> stats = timers();
+        for (int i = 0; i < stats.size(); i++) {
+            TimerStats timer = stats.get(i);
+            json.append(i == 0 ? "" : ",").append('"').append(timer.getName()).append("\":{\"count\":")
+                    .append(timer.getCount()).append(",\"meanNanos\":").append((long) timer.getMeanNanos())
+                    .append(",\"p50Nanos\":").append(timer.getP50Nanos())
+                    .append(",\"p90Nanos\":").append(timer.getP90Nanos())
+                    .append(",\"p99Nanos\":").append(timer.getP99Nanos())
+                    .append(",\"maxNanos\":").append(timer.getMaxNanos()).append('}');
+        }
+        json.append("},\"counters\":");
+        appendJson(json, counters());
+        json.append(",\"gauges\":");
+        appendJson(json, gauges());
+        json.append(String.format(Locale.ROOT, ",\"partSearchCacheHitRate\":%.4f,\"productSearchCacheHitRate\":%.4f}",
+                partSearchCacheHitRate(), productSearchCacheHitRate()));
+        return json.toString();
+    }
+
+    private static void appendJson(StringBuilder json, Map<String, Long> values) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            first = false;
+        }
+        json.append('}');
+    }
+
+    /**
+     * Writes every metric to a sink at a fixed rate, from a daemon thread.
+     * @param period
+     * @param unit
+     * @param json whether to write JSON rather than text
+     * @param sink
+     * @return the executor doing the writing, which can be shut down to stop it
+     */
+    public static ScheduledExecutorService dumpEvery(long period, TimeUnit unit, boolean json,
+                                                     Consumer<String> sink) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "inventory-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> sink.accept(json ? toJson() : toText()), period, period, unit);
+        return dumper;
+    }
+
+    /**
+     * Publishes the metrics over JMX, and if -Dinventory.metrics.dumpSeconds is set, dumps them to standard out
+     * that often, as JSON if -Dinventory.metrics.json=true. Does nothing if metrics are switched off.
+     */
+    public static synchronized void install() {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName("ims:type=InventoryMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), name);
+            }
+        } catch (JMException e) {
+            System.err.println("Couldn't register the Inventory metrics with JMX: " + e);
+        }
+        long dumpSeconds = Long.getLong("inventory.metrics.dumpSeconds", 0);
+        if (dumpSeconds > 0) {
+            dumpEvery(dumpSeconds, TimeUnit.SECONDS, Boolean.getBoolean("inventory.metrics.json"),
+                    System.out::println);
+        }
+    }
+
+    /**
+     * Latency statistics for one operation, as read at one moment.
+     */
+    public static class TimerStats {
+        private final String name;
+        private final long count;
+        private final double meanNanos;
+        private final long[] percentileNanos = new long[PERCENTILES.length];
+        private final long maxNanos;
+
+        private TimerStats(String name, LatencyRecorder timer) {
+            this.name = name;
+            count = timer.count();
+            meanNanos = count == 0 ? 0 : (double) timer.totalNanos() / count;
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentileNanos[i] = timer.valueAtPercentile(PERCENTILES[i]);
+            }
+            maxNanos = timer.maxNanos();
+        }
+
+        /**
+         * @return the operation's name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of times the operation was timed
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the mean latency
+         */
+        public double getMeanNanos() {
+            return meanNanos;
+        }
+
+        /**
+         * @return the median latency
+         */
+        public long getP50Nanos() {
+            return percentileNanos[0];
+        }
+
+        /**
+         * @return the 90th percentile latency
+         */
+        public long getP90Nanos() {
+            return percentileNanos[1];
+        }
+
+        /**
+         * @return the 99th percentile latency
+         */
+        public long getP99Nanos() {
+            return percentileNanos[2];
+        }
+
+        /**
+         * @return the largest latency
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+
+    private static final class MXBean implements InventoryMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return InventoryMetrics.isEnabled();
+        }
+
+        @Override
+        public List<TimerStats> getTimers() {
+            return timers();
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return gauges();
+        }
+
+        @Override
+        public double getPartSearchCacheHitRate() {
+            return partSearchCacheHitRate();
+        }
+
+        @Override
+        public double getProductSearchCacheHitRate() {
+            return productSearchCacheHitRate();
+        }
+
+        @Override
+        public String getJson() {
+            return toJson();
+        }
+
+        @Override
+        public void reset() {
+            InventoryMetrics.reset();
+        }
+    }
+}
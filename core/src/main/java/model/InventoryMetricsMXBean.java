@@ -0,0 +1,51 @@
+package model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JMX view of {@link InventoryMetrics}, registered as ims:type=InventoryMetrics.
+ *
+ * @author Zachary Mollenhour
+ */
+public interface InventoryMetricsMXBean {
+    /**
+     * @return whether metrics are being recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * @return latency statistics for each timed operation
+     */
+    List<InventoryMetrics.TimerStats> getTimers();
+
+    /**
+     * @return the value of each counter
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return the current size of each of the Inventory's indexes and caches
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * @return the share of Part searches answered straight from the search cache
+     */
+    double getPartSearchCacheHitRate();
+
+    /**
+     * @return the share of Product searches answered straight from the search cache
+     */
+    double getProductSearchCacheHitRate();
+
+    /**
+     * @return every metric as a JSON object
+     */
+    String getJson();
+
+    /**
+     * Zeroes every timer and counter.
+     */
+    void reset();
+}
@@ -0,0 +1,47 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An immutable copy of every Part and Product in the Inventory at one moment.
+ * A snapshot can be read from any thread, for as long as needed, without holding up changes to the Inventory.
+ *
+ * @author Zachary Mollenhour
+ */
+public class InventorySnapshot {
+    private final long version;
+    private final List<Part> parts;
+    private final List<Product> products;
+
+    /**
+     * @param version the Inventory version the snapshot was taken at
+     * @param parts
+     * @param products
+     */
+    InventorySnapshot(long version, List<Part> parts, List<Product> products) {
+        this.version = version;
+        this.parts = parts;
+        this.products = products;
+    }
+
+    /**
+     * @return the Inventory version the snapshot was taken at, which goes up with every change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a read-only list of the Parts, in Inventory order
+     */
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * @return a read-only list of the Products, in Inventory order
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+}
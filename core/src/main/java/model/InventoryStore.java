@@ -0,0 +1,84 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Durable storage behind the Inventory.
+ * The Inventory keeps working from memory, and forwards every change to its store so that the parts and
+ * products survive a restart. When the Inventory is opened, the store replays what it holds back into it.
+ *
+ * @author Zachary Mollenhour
+ */
+public interface InventoryStore extends Closeable {
+    /**
+     * Replays the stored records, in the order they were written.
+     * @param recovery receives each stored change
+     * @throws IOException if the stored records can't be read
+     */
+    void recover(Recovery recovery) throws IOException;
+
+    /**
+     * Records that a Part was added or replaced.
+     * @param part
+     */
+    void putPart(Part part);
+
+    /**
+     * Records that a Part was deleted.
+     * @param partId
+     */
+    void removePart(int partId);
+
+    /**
+     * Records that a Product was added or replaced, along with its associated Parts.
+     * @param product
+     */
+    void putProduct(Product product);
+
+    /**
+     * Records that a Product was deleted.
+     * @param productId
+     */
+    void removeProduct(int productId);
+
+    /**
+     * @return true once enough changes have built up that the store should be compacted
+     */
+    boolean shouldCompact();
+
+    /**
+     * Replaces the stored history with the current contents of the Inventory.
+     * The store may write them out on another thread, so both lists must be immutable.
+     * @param parts every Part, in Inventory order
+     * @param products a copy of every Product, in Inventory order
+     */
+    void compact(List<Part> parts, List<ProductRecord> products);
+
+    /**
+     * Receives the changes replayed by a store.
+     */
+    interface Recovery {
+        /**
+         * @param part a Part that was added, or that replaces an earlier Part with the same ID
+         */
+        void putPart(Part part);
+
+        /**
+         * @param partId the ID of a deleted Part
+         */
+        void removePart(int partId);
+
+        /**
+         * @param product a Product that was added, or that replaces an earlier Product with the same ID
+         * @param associatedPartIds the IDs of the Parts associated with the Product
+         */
+        void putProduct(Product product, int[] associatedPartIds);
+
+        /**
+         * @param productId the ID of a deleted Product
+         */
+        void removeProduct(int productId);
+    }
+}
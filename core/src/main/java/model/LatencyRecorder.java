@@ -0,0 +1,103 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A latency histogram that any number of threads can record into at once, without locks or allocation.
+ * Values below 32ns are counted exactly. Above that, each power of two is split into 16 buckets, so a
+ * percentile is reported to within about 6% of its true value, in a fixed 8KB however many values are recorded.
+ * Reading the histogram while it's being recorded into gives a close, but not exact, picture.
+ *
+ * @author Zachary Mollenhour
+ */
+class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int HALF_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private final AtomicLongArray counts = new AtomicLongArray(index(Long.MAX_VALUE) + 1);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos
+     */
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of the values recorded
+     */
+    long totalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * @return the largest value recorded
+     */
+    long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return the value the given percentage of recorded values are at or below, or 0 if none were recorded
+     */
+    long valueAtPercentile(double percentile) {
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count()));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValue(i), maxNanos.get());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forgets every value recorded so far.
+     */
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * Values below 2 * HALF_BUCKETS get a bucket each. Above that, a value is shifted right until it fits in
+     * [HALF_BUCKETS, 2 * HALF_BUCKETS), and each shift moves on to the next HALF_BUCKETS buckets.
+     */
+    private static int index(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * HALF_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int index) {
+        if (index < 2 * HALF_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_BUCKETS - 1;
+        long lowest = (long) (index - shift * HALF_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
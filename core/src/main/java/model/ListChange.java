@@ -0,0 +1,85 @@
+package model;
+
+/**
+ * The extent of the changes made to a list of records since listeners were last told about it.
+ * Rather than every change, this keeps the rows before the first change and after the last one, which are
+ * the rows a batch left alone, so recording a change costs the same however large the batch grows.
+ *
+ * @author Zachary Mollenhour
+ */
+public final class ListChange {
+    private int from = Integer.MAX_VALUE;
+    private int unchangedTail = Integer.MAX_VALUE;
+
+    ListChange() {
+    }
+
+    /**
+     * @return whether nothing has changed
+     */
+    public boolean isEmpty() {
+        return from == Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return the number of rows at the start of the list that are the same before and after the changes
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * @return the number of rows at the end of the list that are the same before and after the changes
+     */
+    public int getUnchangedTail() {
+        return unchangedTail;
+    }
+
+    /**
+     * @param row the row that was inserted
+     * @param size the number of rows afterwards
+     */
+    void added(int row, int size) {
+        record(row, size - row - 1);
+    }
+
+    /**
+     * @param row the row that was removed
+     * @param size the number of rows afterwards
+     */
+    void removed(int row, int size) {
+        record(row, size - row);
+    }
+
+    /**
+     * @param row the row that was overwritten
+     * @param size the number of rows
+     */
+    void replaced(int row, int size) {
+        record(row, size - row - 1);
+    }
+
+    /**
+     * Records that every row may have changed, as when the whole list is replaced.
+     */
+    void replacedAll() {
+        record(0, 0);
+    }
+
+    /**
+     * Widens this extent to cover changes made after it, or before it.
+     * @param later
+     */
+    void merge(ListChange later) {
+        record(later.from, later.unchangedTail);
+    }
+
+    /**
+     * A change leaves every row before it, and the given number of rows at the end, where they were, so the
+     * rows left alone by a batch are those left alone by every change in it.
+     */
+    private void record(int row, int tail) {
+        from = Math.min(from, row);
+        unchangedTail = Math.min(unchangedTail, tail);
+    }
+}
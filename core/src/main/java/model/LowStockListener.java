@@ -0,0 +1,18 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Hears about Parts and Products whose stock has fallen below their minimum.
+ * Added with {@link Inventory#addLowStockListener(int, LowStockListener, java.util.concurrent.Executor)}.
+ *
+ * @author Zachary Mollenhour
+ */
+public interface LowStockListener {
+    /**
+     * Called after a batch of changes that ran a record short, changed how short it is, or restocked it.
+     * @param parts the Parts furthest below their minimum, worst first, up to the listener's limit
+     * @param products the Products furthest below their minimum, worst first, up to the listener's limit
+     */
+    void lowStockChanged(List<Part> parts, List<Product> products);
+}
@@ -0,0 +1,171 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Tracks the Parts and Products whose stock is below their minimum, ordered by how far below it they are.
+ * The Inventory tells the monitor about every change to a record's stock or minimum, each costing O(log n), so
+ * the worst shortages can be read or pushed to listeners without scanning the catalog. Used under the Inventory
+ * lock, like the Inventory's other indexes.
+ *
+ * @author Zachary Mollenhour
+ */
+class LowStockMonitor {
+    private ShortfallQueue parts = new ShortfallQueue();
+    private ShortfallQueue products = new ShortfallQueue();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private boolean changed;
+
+    /**
+     * @param part a Part added to the Inventory, or the new version of one that was updated
+     */
+    void partChanged(Part part) {
+        changed |= parts.set(part.getId(), part.getMin() - part.getStock());
+    }
+
+    /**
+     * @param partId a Part removed from the Inventory, or the old ID of one that was updated
+     */
+    void partRemoved(int partId) {
+        changed |= parts.remove(partId);
+    }
+
+    /**
+     * @param product a Product added to the Inventory, or the new version of one that was updated
+     */
+    void productChanged(Product product) {
+        changed |= products.set(product.getId(), product.getMin() - product.getStock());
+    }
+
+    /**
+     * @param productId a Product removed from the Inventory, or the old ID of one that was updated
+     */
+    void productRemoved(int productId) {
+        changed |= products.remove(productId);
+    }
+
+    /**
+     * Takes over the shortages tracked by another monitor, built for records that replace the Inventory's own,
+     * keeping this monitor's listeners.
+     * @param loaded
+     */
+    void adopt(LowStockMonitor loaded) {
+        parts = loaded.parts;
+        products = loaded.products;
+        changed = true;
+    }
+
+    /**
+     * @param limit
+     * @return the IDs of the Parts furthest below their minimum, worst first
+     */
+    int[] worstParts(int limit) {
+        return parts.top(limit);
+    }
+
+    /**
+     * @param limit
+     * @return the IDs of the Products furthest below their minimum, worst first
+     */
+    int[] worstProducts(int limit) {
+        return products.top(limit);
+    }
+
+    /**
+     * @return the number of Parts below their minimum
+     */
+    int lowParts() {
+        return parts.size();
+    }
+
+    /**
+     * @return the number of Products below their minimum
+     */
+    int lowProducts() {
+        return products.size();
+    }
+
+    /**
+     * @param limit
+     * @param listener
+     * @param executor
+     */
+    void addListener(int limit, LowStockListener listener, Executor executor) {
+        subscriptions.add(new Subscription(limit, listener, executor));
+    }
+
+    /**
+     * @param listener
+     */
+    void removeListener(LowStockListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Hands every listener the worst records as they stand now, and schedules those that aren't already waiting to
+     * run, if any shortage has changed since the last call. Called with the Inventory lock held.
+     */
+    void notifyListeners() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        for (Subscription subscription : subscriptions) {
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * A listener, how many of the worst records it wants, and the executor it's called on. Like the Inventory's
+     * own listeners, changes made while a call is waiting to run are reported by that call, with the worst records
+     * as of the last change.
+     */
+    private final class Subscription implements Runnable {
+        private final int limit;
+        private final LowStockListener listener;
+        private final Executor executor;
+        private List<Part> worstParts;
+        private List<Product> worstProducts;
+        private boolean scheduled;
+
+        private Subscription(int limit, LowStockListener listener, Executor executor) {
+            this.limit = limit;
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * Copies the worst records, which are consistent because the Inventory lock is held, for the listener to
+         * pick up without taking the lock itself.
+         */
+        private void schedule() {
+            List<Part> parts = Inventory.getLowStockParts(limit);
+            List<Product> products = Inventory.getLowStockProducts(limit);
+            synchronized (this) {
+                worstParts = parts;
+                worstProducts = products;
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            List<Part> parts;
+            List<Product> products;
+            synchronized (this) {
+                scheduled = false;
+                parts = worstParts;
+                products = worstProducts;
+            }
+            if (subscriptions.contains(this)) {
+                listener.lowStockChanged(parts, products);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An inverted trigram index over record names, used for case-insensitive substring search.
+ * Every record is given an ordinal that follows its position in the Inventory list, and each three-character
+ * slice (trigram) of its lowercased name points at a sorted list of the ordinals containing it.
+ * A substring query intersects the lists for its own trigrams and only the surviving candidates are checked
+ * against the full query, so search cost follows the number of matches rather than the size of the catalog.
+ * Queries shorter than a trigram fall back to checking every record, using the stored lowercase names so
+ * that nothing is allocated per record.
+ *
+ * @author Zachary Mollenhour
+ */
+class NameIndex {
+    private static final int GRAM = 3;
+    private final IntHashIndex<Entry> entriesById = new IntHashIndex<>();
+    private final IntHashIndex<Postings> postingsByGram = new IntHashIndex<>();
+    private Entry[] entriesByOrdinal = new Entry[16];
+    private int nextOrdinal;
+
+    /**
+     * Adds a record to the end of the index.
+     * @param id
+     * @param name
+     */
+    void add(int id, String name) {
+        if (nextOrdinal == entriesByOrdinal.length) {
+            if (entriesById.size() < nextOrdinal / 2) {
+                compact();
+            } else {
+                entriesByOrdinal = Arrays.copyOf(entriesByOrdinal, nextOrdinal * 2);
+            }
+        }
+        Entry entry = new Entry(id, nextOrdinal++, name.toLowerCase());
+        entriesByOrdinal[entry.ordinal] = entry;
+        entriesById.put(id, entry);
+        indexGrams(entry);
+    }
+
+    /**
+     * Replaces a record in place, keeping its position relative to the other records.
+     * @param oldId the ID of the record being replaced
+     * @param newId
+     * @param newName
+     */
+    void replace(int oldId, int newId, String newName) {
+        Entry old = entriesById.remove(oldId);
+        if (old == null) {
+            add(newId, newName);
+            return;
+        }
+        unindexGrams(old);
+        Entry entry = new Entry(newId, old.ordinal, newName.toLowerCase());
+        entriesByOrdinal[entry.ordinal] = entry;
+        entriesById.put(newId, entry);
+        indexGrams(entry);
+    }
+
+    /**
+     * Removes a record from the index.
+     * @param id
+     */
+    void remove(int id) {
+        Entry entry = entriesById.remove(id);
+        if (entry != null) {
+            unindexGrams(entry);
+            entriesByOrdinal[entry.ordinal] = null;
+        }
+    }
+
+    /**
+     * Removes a record and gives its position to another, for when a later record is moved into a deleted one's
+     * place in the Inventory list.
+     * @param removedId
+     * @param movedId the ID of the record taking the removed record's position
+     */
+    void removeAndMove(int removedId, int movedId) {
+        Entry removed = entriesById.remove(removedId);
+        if (removed == null) {
+            return;
+        }
+        unindexGrams(removed);
+        entriesByOrdinal[removed.ordinal] = null;
+        Entry moved = entriesById.get(movedId);
+        if (moved == null) {
+            return;
+        }
+        unindexGrams(moved);
+        entriesByOrdinal[moved.ordinal] = null;
+        Entry entry = new Entry(movedId, removed.ordinal, moved.key);
+        entriesByOrdinal[entry.ordinal] = entry;
+        entriesById.put(movedId, entry);
+        indexGrams(entry);
+    }
+
+    /**
+     * Finds every record whose name contains the query, ignoring case.
+     * Matching IDs are passed to the consumer in the same order as the records were added.
+     * @param query
+     * @param matches
+     */
+    void search(String query, IntConsumer matches) {
+        String key = query.toLowerCase();
+        if (key.length() < GRAM) {
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                Entry entry = entriesByOrdinal[ordinal];
+                if (entry != null && entry.key.contains(key)) {
+                    matches.accept(entry.id);
+                }
+            }
+            return;
+        }
+
+        // Gather the posting lists for the query's trigrams. If any trigram is missing, nothing can match.
+        int gramCount = key.length() - GRAM + 1;
+        Postings[] lists = new Postings[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            lists[i] = postingsByGram.get(gram(key, i));
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        // Walk the shortest list and probe the others, so the work is bounded by the rarest trigram.
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        Postings shortest = lists[0];
+        for (int i = 0; i < shortest.size; i++) {
+            int ordinal = shortest.ordinals[i];
+            if (containsAll(lists, ordinal)) {
+                Entry entry = entriesByOrdinal[ordinal];
+                if (entry.key.contains(key)) {
+                    matches.accept(entry.id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks a single record against an already lowercased query, without allocating.
+     * @param id
+     * @param key the lowercased query
+     * @return true if the record's name contains the query
+     */
+    boolean matches(int id, String key) {
+        Entry entry = entriesById.get(id);
+        return entry != null && entry.key.contains(key);
+    }
+
+    /**
+     * Removes every record from the index.
+     */
+    void clear() {
+        entriesById.clear();
+        postingsByGram.clear();
+        Arrays.fill(entriesByOrdinal, 0, nextOrdinal, null);
+        nextOrdinal = 0;
+    }
+
+    /**
+     * @return the number of records in the index
+     */
+    int size() {
+        return entriesById.size();
+    }
+
+    private static boolean containsAll(Postings[] lists, int ordinal) {
+        for (int i = 1; i < lists.length; i++) {
+            if (lists[i].indexOf(ordinal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexGrams(Entry entry) {
+        for (int i = 0; i + GRAM <= entry.key.length(); i++) {
+            int gram = gram(entry.key, i);
+            Postings postings = postingsByGram.get(gram);
+            if (postings == null) {
+                postings = new Postings();
+                postingsByGram.put(gram, postings);
+            }
+            postings.insert(entry.ordinal);
+        }
+    }
+
+    private void unindexGrams(Entry entry) {
+        for (int i = 0; i + GRAM <= entry.key.length(); i++) {
+            int gram = gram(entry.key, i);
+            Postings postings = postingsByGram.get(gram);
+            if (postings != null && postings.delete(entry.ordinal) && postings.size == 0) {
+                postingsByGram.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Renumbers the surviving records once enough have been removed, so ordinals stay dense.
+     */
+    private void compact() {
+        Entry[] live = new Entry[Math.max(16, entriesById.size() * 2)];
+        int count = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            Entry entry = entriesByOrdinal[ordinal];
+            if (entry != null) {
+                live[count] = new Entry(entry.id, count, entry.key);
+                count++;
+            }
+        }
+        clear();
+        entriesByOrdinal = live;
+        nextOrdinal = count;
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            entriesById.put(live[ordinal].id, live[ordinal]);
+            indexGrams(live[ordinal]);
+        }
+    }
+
+    /**
+     * Packs three characters into an int. Characters outside the packed range may collide, which only
+     * produces extra candidates that the final containment check removes.
+     */
+    private static int gram(String key, int start) {
+        return (key.charAt(start) & 0x3FF) << 20 | (key.charAt(start + 1) & 0x3FF) << 10 | (key.charAt(start + 2) & 0x3FF);
+    }
+
+    /**
+     * A record's place in the index.
+     */
+    private static final class Entry {
+        private final int id;
+        private final int ordinal;
+        private final String key;
+
+        private Entry(int id, int ordinal, String key) {
+            this.id = id;
+            this.ordinal = ordinal;
+            this.key = key;
+        }
+    }
+
+    /**
+     * A sorted, duplicate-free list of ordinals.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        private int indexOf(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal);
+        }
+
+        private void insert(int ordinal) {
+            // New records always carry the highest ordinal, so the common case is a plain append.
+            int at = size == 0 || ordinals[size - 1] < ordinal ? size : indexOf(ordinal);
+            if (at >= 0 && at < size) {
+                return;
+            }
+            if (at < 0) {
+                at = -at - 1;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        private boolean delete(int ordinal) {
+            int at = indexOf(ordinal);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
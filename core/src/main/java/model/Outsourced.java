@@ -26,4 +26,9 @@ public class Outsourced extends Part {
     public void setCompanyName(String companyName) {
         this.companyName = companyName;
     }
+
+    @Override
+    Part copy() {
+        return new Outsourced(getId(), getName(), getPrice(), getStock(), getMin(), getMax(), companyName);
+    }
 }
\ No newline at end of file
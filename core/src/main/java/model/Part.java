@@ -108,4 +108,35 @@ public abstract class Part {
         this.max = max;
     }
 
+    /**
+     * Copies the Part, for handing out a Product's associated Parts without sharing them.
+     * InHouse and Outsourced Parts are copied; other kinds of Part are returned as they are.
+     * @return a Part equal to this one that shares no state with it
+     */
+    Part copy() {
+        return this;
+    }
+
+    /**
+     * Parts held by the Inventory are materialized on demand, so two objects can describe the same Part.
+     * They are treated as equal when they are the same kind of Part with the same ID.
+     * @param other
+     * @return true if other is the same Part
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other != null && other.getClass() == getClass() && ((Part) other).id == id;
+    }
+
+    /**
+     * @return a hash of the id
+     */
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
 }
\ No newline at end of file
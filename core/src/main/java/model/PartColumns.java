@@ -0,0 +1,361 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A struct-of-arrays store for Parts.
+ * Rather than one heap object per Part, every field is kept in its own primitive array indexed by row, with
+ * names and company names deduplicated through a shared, reference-counted string pool. A Part's subtype is kept
+ * as a tag column alongside the subtype-specific columns.
+ *
+ * Part objects are only produced on demand, as short-lived views of a row, so a large catalog costs a few
+ * primitive arrays rather than millions of objects. A view is a snapshot of its row: changes to a Part should be
+ * made through the Inventory, which writes them back into the columns.
+ *
+ * The columns are split into fixed-size chunks so that {@link #snapshot()} can share them rather than copy them.
+ * Taking a snapshot only copies the list of chunks, and a chunk is copied the first time a row in it is changed
+ * after a snapshot, so readers of a snapshot never see later changes and writers never wait for readers.
+ *
+ * @author Zachary Mollenhour
+ */
+class PartColumns {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final byte IN_HOUSE = 0;
+    private static final byte OUTSOURCED = 1;
+    private final IntIntHashIndex rowsById = new IntIntHashIndex(-1);
+    private final StringPool strings = new StringPool();
+    private Chunk[] chunks = new Chunk[4];
+    private int size;
+    // Bumped by every snapshot. Chunks stamped with an older epoch may be shared with a snapshot.
+    private int epoch;
+
+    /**
+     * @return the number of rows
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of distinct strings held by the columns
+     */
+    int pooledStrings() {
+        return strings.entries.size();
+    }
+
+    /**
+     * @param id
+     * @return the row holding the Part with this ID, or -1
+     */
+    int rowOf(int id) {
+        return rowsById.get(id);
+    }
+
+    /**
+     * Appends a Part as a new row.
+     * @param part
+     */
+    void add(Part part) {
+        int index = size >>> CHUNK_SHIFT;
+        if (index == chunks.length) {
+            chunks = Arrays.copyOf(chunks, index * 2);
+        }
+        if (chunks[index] == null) {
+            chunks[index] = new Chunk(epoch);
+        }
+        // No snapshot can see a row past the current size, so appending never needs to copy a shared chunk.
+        chunks[index].write(size & CHUNK_MASK, part, strings);
+        rowsById.put(part.getId(), size);
+        size++;
+    }
+
+    /**
+     * Overwrites a row with a different Part.
+     * @param row
+     * @param part
+     */
+    void set(int row, Part part) {
+        Chunk chunk = writable(row >>> CHUNK_SHIFT);
+        int slot = row & CHUNK_MASK;
+        rowsById.remove(chunk.ids[slot]);
+        chunk.release(slot, strings);
+        chunk.write(slot, part, strings);
+        rowsById.put(part.getId(), row);
+    }
+
+    /**
+     * Removes a row by moving the last row into its place, so no other row moves and the cost is the same
+     * wherever the row is. The last Part takes the removed one's position.
+     * @param row
+     */
+    void remove(int row) {
+        int last = size - 1;
+        Chunk chunk = writable(row >>> CHUNK_SHIFT);
+        int slot = row & CHUNK_MASK;
+        rowsById.remove(chunk.ids[slot]);
+        chunk.release(slot, strings);
+        if (row != last) {
+            chunk.copyRow(slot, chunks[last >>> CHUNK_SHIFT], last & CHUNK_MASK);
+            rowsById.put(chunk.ids[slot], row);
+        }
+        if ((last & CHUNK_MASK) == 0) {
+            chunks[last >>> CHUNK_SHIFT] = null;
+        } else {
+            writable(last >>> CHUNK_SHIFT).clear(last & CHUNK_MASK);
+        }
+        size = last;
+    }
+
+    /**
+     * Removes several rows in a single pass, keeping the order of the remaining Parts.
+     * Each remaining row is moved at most once, however many rows are removed.
+     * @param rows the rows to remove, in ascending order without repeats
+     */
+    void removeAll(int[] rows) {
+        if (rows.length == 0) {
+            return;
+        }
+        int next = 0;
+        int target = rows[0];
+        for (int row = rows[0]; row < size; row++) {
+            Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+            int slot = row & CHUNK_MASK;
+            if (next < rows.length && rows[next] == row) {
+                next++;
+                rowsById.remove(chunk.ids[slot]);
+                chunk.release(slot, strings);
+                continue;
+            }
+            writable(target >>> CHUNK_SHIFT).copyRow(target & CHUNK_MASK, chunk, slot);
+            rowsById.put(chunk.ids[slot], target);
+            target++;
+        }
+        int lastChunk = (target + CHUNK_MASK) >>> CHUNK_SHIFT;
+        for (int row = target; row < Math.min(size, lastChunk << CHUNK_SHIFT); row++) {
+            writable(row >>> CHUNK_SHIFT).clear(row & CHUNK_MASK);
+        }
+        for (int index = lastChunk; index < chunks.length; index++) {
+            chunks[index] = null;
+        }
+        size = target;
+    }
+
+    /**
+     * Materializes a view of one row.
+     * @param row
+     * @return an InHouse or Outsourced Part holding the row's values
+     */
+    Part get(int row) {
+        return chunks[row >>> CHUNK_SHIFT].get(row & CHUNK_MASK);
+    }
+
+    /**
+     * @param row
+     * @return the ID of the Part in the row
+     */
+    int id(int row) {
+        return chunks[row >>> CHUNK_SHIFT].ids[row & CHUNK_MASK];
+    }
+
+    /**
+     * @param row
+     * @return the name of the Part in the row
+     */
+    String name(int row) {
+        return chunks[row >>> CHUNK_SHIFT].names[row & CHUNK_MASK];
+    }
+
+    /**
+     * @param row
+     * @return the price of the Part in the row
+     */
+    double price(int row) {
+        return chunks[row >>> CHUNK_SHIFT].prices[row & CHUNK_MASK];
+    }
+
+    /**
+     * @param row
+     * @return the stock of the Part in the row
+     */
+    int stock(int row) {
+        return chunks[row >>> CHUNK_SHIFT].stocks[row & CHUNK_MASK];
+    }
+
+    /**
+     * Captures the current rows, so they can be read on another thread while this store keeps changing.
+     * This costs one reference per chunk; the chunks themselves are only copied if this store later changes them.
+     * @return a read-only list of views over the captured rows
+     */
+    List<Part> snapshot() {
+        epoch++;
+        return new Snapshot(Arrays.copyOf(chunks, (size + CHUNK_MASK) >>> CHUNK_SHIFT), size);
+    }
+
+    /**
+     * Returns a chunk that is safe to change, copying it first if a snapshot might still be reading it.
+     */
+    private Chunk writable(int index) {
+        Chunk chunk = chunks[index];
+        if (chunk.epoch != epoch) {
+            chunk = new Chunk(chunk, epoch);
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    /**
+     * One fixed-size run of rows, with a column array per field.
+     */
+    private static final class Chunk {
+        private final int epoch;
+        private final int[] ids;
+        private final String[] names;
+        private final double[] prices;
+        private final int[] stocks;
+        private final int[] mins;
+        private final int[] maxes;
+        private final byte[] kinds;
+        private final int[] machineIds;
+        private final String[] companyNames;
+
+        private Chunk(int epoch) {
+            this.epoch = epoch;
+            ids = new int[CHUNK_SIZE];
+            names = new String[CHUNK_SIZE];
+            prices = new double[CHUNK_SIZE];
+            stocks = new int[CHUNK_SIZE];
+            mins = new int[CHUNK_SIZE];
+            maxes = new int[CHUNK_SIZE];
+            kinds = new byte[CHUNK_SIZE];
+            machineIds = new int[CHUNK_SIZE];
+            companyNames = new String[CHUNK_SIZE];
+        }
+
+        private Chunk(Chunk source, int epoch) {
+            this.epoch = epoch;
+            ids = source.ids.clone();
+            names = source.names.clone();
+            prices = source.prices.clone();
+            stocks = source.stocks.clone();
+            mins = source.mins.clone();
+            maxes = source.maxes.clone();
+            kinds = source.kinds.clone();
+            machineIds = source.machineIds.clone();
+            companyNames = source.companyNames.clone();
+        }
+
+        private Part get(int slot) {
+            if (kinds[slot] == OUTSOURCED) {
+                return new Outsourced(ids[slot], names[slot], prices[slot], stocks[slot], mins[slot], maxes[slot],
+                        companyNames[slot]);
+            }
+            return new InHouse(ids[slot], names[slot], prices[slot], stocks[slot], mins[slot], maxes[slot],
+                    machineIds[slot]);
+        }
+
+        private void write(int slot, Part part, StringPool strings) {
+            ids[slot] = part.getId();
+            names[slot] = strings.acquire(part.getName());
+            prices[slot] = part.getPrice();
+            stocks[slot] = part.getStock();
+            mins[slot] = part.getMin();
+            maxes[slot] = part.getMax();
+            if (part instanceof Outsourced) {
+                kinds[slot] = OUTSOURCED;
+                machineIds[slot] = 0;
+                companyNames[slot] = strings.acquire(((Outsourced) part).getCompanyName());
+            } else {
+                kinds[slot] = IN_HOUSE;
+                machineIds[slot] = part instanceof InHouse ? ((InHouse) part).getMachineId() : 0;
+                companyNames[slot] = null;
+            }
+        }
+
+        private void release(int slot, StringPool strings) {
+            strings.release(names[slot]);
+            if (kinds[slot] == OUTSOURCED) {
+                strings.release(companyNames[slot]);
+            }
+        }
+
+        private void copyRow(int slot, Chunk source, int sourceSlot) {
+            ids[slot] = source.ids[sourceSlot];
+            names[slot] = source.names[sourceSlot];
+            prices[slot] = source.prices[sourceSlot];
+            stocks[slot] = source.stocks[sourceSlot];
+            mins[slot] = source.mins[sourceSlot];
+            maxes[slot] = source.maxes[sourceSlot];
+            kinds[slot] = source.kinds[sourceSlot];
+            machineIds[slot] = source.machineIds[sourceSlot];
+            companyNames[slot] = source.companyNames[sourceSlot];
+        }
+
+        private void clear(int slot) {
+            names[slot] = null;
+            companyNames[slot] = null;
+        }
+    }
+
+    /**
+     * A read-only list over the chunks captured by {@link #snapshot()}.
+     */
+    private static final class Snapshot extends AbstractList<Part> implements RandomAccess {
+        private final Chunk[] chunks;
+        private final int size;
+
+        private Snapshot(Chunk[] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public Part get(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + size);
+            }
+            return chunks[row >>> CHUNK_SHIFT].get(row & CHUNK_MASK);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Deduplicated storage for the strings held by the columns.
+     * Rows hold the pool's copy of each distinct string, which is counted and forgotten once no row refers to it.
+     */
+    private static final class StringPool {
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        private String acquire(String value) {
+            Entry entry = entries.computeIfAbsent(value, Entry::new);
+            entry.count++;
+            return entry.value;
+        }
+
+        private void release(String value) {
+            Entry entry = entries.get(value);
+            if (entry != null && --entry.count == 0) {
+                entries.remove(value);
+            }
+        }
+
+        private static final class Entry {
+            private final String value;
+            private int count;
+
+            private Entry(String value) {
+                this.value = value;
+            }
+        }
+    }
+}
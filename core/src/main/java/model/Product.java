@@ -1,14 +1,18 @@
 package model;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A model for products
+ * The Inventory keeps its own copy of every Product it holds and hands out copies in turn, so changing a Product
+ * changes nothing in the Inventory until it's passed to updateProduct.
  * @author Zachary Mollenhour
  */
 public class Product {
-    private final ObservableList<Part> associatedParts;
+    // Created on first use, since many Products never have any associated Parts.
+    private List<Part> associatedParts;
     private int id;
     private String name;
     private double price;
@@ -30,8 +34,6 @@ public class Product {
         this.stock = stock;
         this.min = min;
         this.max = max;
-
-        this.associatedParts = FXCollections.observableArrayList();
     }
 
     /**
@@ -124,6 +126,9 @@ public class Product {
      * @param part
      */
     public void addAssociatedPart(Part part) {
+        if (associatedParts == null) {
+            associatedParts = new ArrayList<>();
+        }
         associatedParts.add(part);
     }
 
@@ -132,14 +137,29 @@ public class Product {
      * @param selectedAssociatedPart
      */
     public boolean deleteAssociatedPart(Part selectedAssociatedPart) {
-        return associatedParts.remove(selectedAssociatedPart);
+        return associatedParts != null && associatedParts.remove(selectedAssociatedPart);
     }
 
     /**
-     * Gets a list of associated Parts.
+     * Gets a read-only list of associated Parts.
      * @return associatedParts
      */
-    public ObservableList<Part> getAllAssociatedParts() {
-        return associatedParts;
+    public List<Part> getAllAssociatedParts() {
+        return associatedParts == null ? Collections.emptyList() : Collections.unmodifiableList(associatedParts);
+    }
+
+    /**
+     * Copies the Product along with its associated Parts, so that neither copy can change the other.
+     * @return product
+     */
+    Product copy() {
+        Product copy = new Product(id, name, price, stock, min, max);
+        if (associatedParts != null) {
+            copy.associatedParts = new ArrayList<>(associatedParts.size());
+            for (Part part : associatedParts) {
+                copy.associatedParts.add(part.copy());
+            }
+        }
+        return copy;
     }
 }
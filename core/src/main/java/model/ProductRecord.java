@@ -0,0 +1,93 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An immutable copy of a Product's fields and the IDs of its associated Parts.
+ * Products are mutable, so a Product handed to another thread is copied into a record first, while the Inventory
+ * lock is held; the other thread can then read the record without seeing later changes half made.
+ *
+ * @author Zachary Mollenhour
+ */
+public final class ProductRecord {
+    private final int id;
+    private final String name;
+    private final double price;
+    private final int stock, min, max;
+    private final int[] associatedPartIds;
+
+    /**
+     * Copies a Product as it stands now.
+     * @param product
+     */
+    ProductRecord(Product product) {
+        id = product.getId();
+        name = product.getName();
+        price = product.getPrice();
+        stock = product.getStock();
+        min = product.getMin();
+        max = product.getMax();
+        List<Part> parts = product.getAllAssociatedParts();
+        associatedPartIds = new int[parts.size()];
+        for (int i = 0; i < associatedPartIds.length; i++) {
+            associatedPartIds[i] = parts.get(i).getId();
+        }
+    }
+
+    /**
+     * @return the unique identifier of the Product
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the name of the Product
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the unit price
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * @return the amount of inventory available
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * @return the minimum
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return the number of associated Parts, counting a Part listed more than once each time
+     */
+    public int getAssociatedPartCount() {
+        return associatedPartIds.length;
+    }
+
+    /**
+     * @param index
+     * @return the ID of one associated Part, in the order they were associated
+     */
+    public int getAssociatedPartId(int index) {
+        return associatedPartIds[index];
+    }
+}
@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * The numeric fields the Inventory keeps ordered indexes on, for range queries on Parts and Products.
+ * Used with {@link Inventory#lookupPartsInRange(RangeField, double, double)} and
+ * {@link Inventory#lookupProductsInRange(RangeField, double, double)}.
+ *
+ * @author Zachary Mollenhour
+ */
+public enum RangeField {
+    /** The unit price. */
+    PRICE,
+    /** The number in stock. */
+    STOCK,
+    /** The minimum stock. */
+    MIN,
+    /** The maximum stock. */
+    MAX
+}
@@ -0,0 +1,241 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An ordered index of record IDs by a numeric field, for range queries.
+ * Entries are (value, ID) pairs kept sorted in fixed-size chunks of parallel primitive arrays, ordered by value
+ * and then by ID. Finding a chunk and a position within it is a pair of binary searches, so adding or removing an
+ * entry costs O(log n) plus shifting part of one chunk, and a range query costs O(log n + k) for k matches.
+ * A full chunk is split in two, and an empty one is dropped. A batch of entries can instead be loaded all at once,
+ * sorted in O(n log n).
+ *
+ * @author Zachary Mollenhour
+ */
+class RangeIndex {
+    private static final int CHUNK_SIZE = 512;
+    // Chunks filled by a bulk load are left a quarter empty, so the adds that follow rarely split them.
+    private static final int LOADED_CHUNK_SIZE = CHUNK_SIZE * 3 / 4;
+    private Chunk[] chunks = {new Chunk()};
+    private int chunkCount = 1;
+    private int size;
+
+    /**
+     * Replaces every entry with a batch of entries, sorting them all at once, which is much faster than adding
+     * them one at a time.
+     * @param values sorted in place, along with the IDs
+     * @param ids distinct IDs, each with its value at the same position in values
+     * @param count the number of entries
+     */
+    void load(double[] values, int[] ids, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] += 0.0;
+        }
+        sort(values, ids, count);
+        chunkCount = Math.max(1, (count + LOADED_CHUNK_SIZE - 1) / LOADED_CHUNK_SIZE);
+        chunks = new Chunk[chunkCount];
+        for (int index = 0; index < chunkCount; index++) {
+            Chunk chunk = new Chunk();
+            int start = index * LOADED_CHUNK_SIZE;
+            chunk.size = Math.min(LOADED_CHUNK_SIZE, count - start);
+            System.arraycopy(values, start, chunk.values, 0, chunk.size);
+            System.arraycopy(ids, start, chunk.ids, 0, chunk.size);
+            chunks[index] = chunk;
+        }
+        size = count;
+    }
+
+    /**
+     * @param value
+     * @param id
+     */
+    void add(double value, int id) {
+        // Adding 0.0 turns -0.0 into 0.0, which Double.compare would otherwise order before it.
+        value += 0.0;
+        int index = chunkFor(value, id);
+        Chunk chunk = chunks[index];
+        if (chunk.size == CHUNK_SIZE) {
+            split(index);
+            if (compare(value, id, chunk.values[chunk.size - 1], chunk.ids[chunk.size - 1]) > 0) {
+                chunk = chunks[index + 1];
+            }
+        }
+        int at = chunk.search(value, id);
+        if (at >= 0) {
+            return;
+        }
+        chunk.insert(-at - 1, value, id);
+        size++;
+    }
+
+    /**
+     * @param value the value the entry was added with
+     * @param id
+     * @return whether the entry was in the index
+     */
+    boolean remove(double value, int id) {
+        value += 0.0;
+        int index = chunkFor(value, id);
+        Chunk chunk = chunks[index];
+        int at = chunk.search(value, id);
+        if (at < 0) {
+            return false;
+        }
+        chunk.delete(at);
+        size--;
+        if (chunk.size == 0 && chunkCount > 1) {
+            System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+            chunks[--chunkCount] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the IDs whose value is between two bounds, inclusive, in ascending order of value and then ID.
+     * @param from
+     * @param to
+     * @param matches
+     */
+    void search(double from, double to, IntConsumer matches) {
+        from += 0.0;
+        to += 0.0;
+        for (int index = chunkFor(from, Integer.MIN_VALUE); index < chunkCount; index++) {
+            Chunk chunk = chunks[index];
+            int at = chunk.search(from, Integer.MIN_VALUE);
+            for (at = at < 0 ? -at - 1 : at; at < chunk.size; at++) {
+                if (Double.compare(chunk.values[at], to) > 0) {
+                    return;
+                }
+                matches.accept(chunk.ids[at]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the first chunk whose last entry isn't before the given one, or the last chunk if there's none
+     */
+    private int chunkFor(double value, int id) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Chunk chunk = chunks[middle];
+            if (compare(chunk.values[chunk.size - 1], chunk.ids[chunk.size - 1], value, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void split(int index) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(chunks, index + 1, chunks, index + 2, chunkCount - index - 1);
+        chunkCount++;
+        Chunk full = chunks[index];
+        Chunk upper = new Chunk();
+        int half = full.size / 2;
+        upper.size = full.size - half;
+        System.arraycopy(full.values, half, upper.values, 0, upper.size);
+        System.arraycopy(full.ids, half, upper.ids, 0, upper.size);
+        full.size = half;
+        chunks[index + 1] = upper;
+    }
+
+    /**
+     * Sorts entries by value and then ID, packing each into one long so the JDK sorts them as primitives.
+     * Each value is replaced by its rank among the distinct values, which fits the high half of the key, and the
+     * ID's sign bit is flipped so IDs order as signed ints within the low half.
+     */
+    private static void sort(double[] values, int[] ids, int count) {
+        long[] bits = new long[count];
+        for (int i = 0; i < count; i++) {
+            bits[i] = sortable(Double.doubleToLongBits(values[i]));
+        }
+        long[] distinct = Arrays.copyOf(bits, count);
+        Arrays.sort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinctCount == 0 || distinct[distinctCount - 1] != distinct[i]) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        long[] keys = bits;
+        for (int i = 0; i < count; i++) {
+            long rank = Arrays.binarySearch(distinct, 0, distinctCount, bits[i]);
+            keys[i] = rank << 32 | (ids[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            values[i] = Double.longBitsToDouble(sortable(distinct[(int) (keys[i] >>> 32)]));
+            ids[i] = (int) keys[i] ^ Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Maps a double's bits to a long that orders the same way as Double.compare, by flipping every bit but the
+     * sign of a negative value. The mapping is its own inverse, so it also maps the long back to the double's bits.
+     */
+    private static long sortable(long bits) {
+        return bits ^ (bits >> 63) & Long.MAX_VALUE;
+    }
+
+    private static int compare(double value, int id, double otherValue, int otherId) {
+        int byValue = Double.compare(value, otherValue);
+        return byValue != 0 ? byValue : Integer.compare(id, otherId);
+    }
+
+    /**
+     * A sorted run of up to CHUNK_SIZE entries.
+     */
+    private static final class Chunk {
+        private final double[] values = new double[CHUNK_SIZE];
+        private final int[] ids = new int[CHUNK_SIZE];
+        private int size;
+
+        /**
+         * @return the entry's position, or (-(insertion point) - 1) if it isn't in the chunk
+         */
+        private int search(double value, int id) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int order = compare(values[middle], ids[middle], value, id);
+                if (order < 0) {
+                    low = middle + 1;
+                } else if (order > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        private void insert(int at, double value, int id) {
+            System.arraycopy(values, at, values, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            values[at] = value;
+            ids[at] = id;
+            size++;
+        }
+
+        private void delete(int at) {
+            System.arraycopy(values, at + 1, values, at, size - at - 1);
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+        }
+    }
+}
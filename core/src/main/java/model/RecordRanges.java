@@ -0,0 +1,184 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Ordered indexes of the Parts or the Products by each {@link RangeField}, for range queries.
+ *
+ * Nothing is indexed until the first range query. Then every record is sorted into the indexes at once, and from
+ * there the Inventory keeps them up to date as records change, each change costing O(log n) per field. The values
+ * each record was indexed with are kept in one primitive column per field, at a slot found by ID, so a record can be
+ * dropped by its ID alone without keeping an object per record. Used under the Inventory lock, like the
+ * Inventory's other indexes.
+ *
+ * @author Zachary Mollenhour
+ */
+class RecordRanges {
+    private static final RangeField[] FIELDS = RangeField.values();
+    private final RangeIndex[] indexes = new RangeIndex[FIELDS.length];
+    // The values each record was indexed with, by slot. Removing a record moves the last slot into its place.
+    private final IntIntHashIndex slotsById = new IntIntHashIndex(-1);
+    private final double[][] columns = new double[FIELDS.length][];
+    private int[] idsBySlot;
+    private int size;
+    private boolean loaded;
+
+    /**
+     * Creates empty indexes.
+     */
+    RecordRanges() {
+        for (int field = 0; field < indexes.length; field++) {
+            indexes[field] = new RangeIndex();
+        }
+        allocate(16);
+    }
+
+    /**
+     * @return whether the records have been loaded, so the indexes can be searched
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Indexes every Part in the Inventory.
+     * @param parts
+     */
+    void loadParts(List<? extends Part> parts) {
+        allocate(Math.max(16, parts.size()));
+        for (Part part : parts) {
+            load(part.getId(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+        }
+        build();
+    }
+
+    /**
+     * Indexes every Product in the Inventory.
+     * @param products
+     */
+    void loadProducts(List<? extends Product> products) {
+        allocate(Math.max(16, products.size()));
+        for (Product product : products) {
+            load(product.getId(), product.getPrice(), product.getStock(), product.getMin(), product.getMax());
+        }
+        build();
+    }
+
+    /**
+     * Does nothing until the records have been loaded.
+     * @param part a Part added to the Inventory, or the new version of one that was updated
+     */
+    void put(Part part) {
+        put(part.getId(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+    }
+
+    /**
+     * Does nothing until the records have been loaded.
+     * @param product a Product added to the Inventory, or the new version of one that was updated
+     */
+    void put(Product product) {
+        put(product.getId(), product.getPrice(), product.getStock(), product.getMin(), product.getMax());
+    }
+
+    /**
+     * Does nothing until the records have been loaded.
+     * @param id a record removed from the Inventory, or the old ID of one that was updated
+     */
+    void remove(int id) {
+        if (!loaded) {
+            return;
+        }
+        int slot = slotsById.remove(id);
+        if (slot < 0) {
+            return;
+        }
+        for (int field = 0; field < indexes.length; field++) {
+            indexes[field].remove(columns[field][slot], id);
+        }
+        int last = --size;
+        if (slot != last) {
+            for (double[] column : columns) {
+                column[slot] = column[last];
+            }
+            idsBySlot[slot] = idsBySlot[last];
+            slotsById.put(idsBySlot[slot], slot);
+        }
+    }
+
+    /**
+     * Finds the IDs of the records whose field is between two bounds, inclusive, in ascending order of the field
+     * and then ID. The records must have been loaded.
+     * @param field
+     * @param from
+     * @param to
+     * @param matches
+     */
+    void search(RangeField field, double from, double to, IntConsumer matches) {
+        indexes[field.ordinal()].search(from, to, matches);
+    }
+
+    /**
+     * @return the number of records indexed
+     */
+    int size() {
+        return size;
+    }
+
+    private void put(int id, double price, int stock, int min, int max) {
+        if (!loaded) {
+            return;
+        }
+        remove(id);
+        int slot = load(id, price, stock, min, max);
+        for (int field = 0; field < indexes.length; field++) {
+            indexes[field].add(columns[field][slot], id);
+        }
+    }
+
+    /**
+     * Keeps one record's values. A record whose ID is already kept has its values replaced.
+     * @return the record's slot
+     */
+    private int load(int id, double price, int stock, int min, int max) {
+        int slot = slotsById.get(id);
+        if (slot < 0) {
+            if (size == idsBySlot.length) {
+                idsBySlot = Arrays.copyOf(idsBySlot, size * 2);
+                for (int field = 0; field < columns.length; field++) {
+                    columns[field] = Arrays.copyOf(columns[field], size * 2);
+                }
+            }
+            slot = size++;
+            idsBySlot[slot] = id;
+            slotsById.put(id, slot);
+        }
+        columns[RangeField.PRICE.ordinal()][slot] = price;
+        columns[RangeField.STOCK.ordinal()][slot] = stock;
+        columns[RangeField.MIN.ordinal()][slot] = min;
+        columns[RangeField.MAX.ordinal()][slot] = max;
+        return slot;
+    }
+
+    /**
+     * Sorts the loaded records into each field's index. The index sorts what it's given, so it's given copies.
+     */
+    private void build() {
+        double[] column = new double[size];
+        for (int field = 0; field < indexes.length; field++) {
+            System.arraycopy(columns[field], 0, column, 0, size);
+            indexes[field].load(column, Arrays.copyOf(idsBySlot, size), size);
+        }
+        loaded = true;
+    }
+
+    private void allocate(int capacity) {
+        slotsById.clear();
+        idsBySlot = new int[capacity];
+        for (int field = 0; field < columns.length; field++) {
+            columns[field] = new double[capacity];
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A small least-recently-used cache of name search results.
+ * Results are keyed by the lowercased query. When a query isn't cached but extends one that is (for example
+ * "bolt" after "bol"), its matches must be a subset of the cached ones, so only those are re-checked instead
+ * of searching the whole catalog again. Recently used queries stay cached, so backspacing is instant too.
+ * Any change to the Inventory invalidates the cache.
+ *
+ * Only the IDs of the matches are cached, so every caller gets records of its own rather than sharing them.
+ *
+ * @author Zachary Mollenhour
+ */
+class SearchCache {
+    private static final int CAPACITY = 8;
+    private final LinkedHashMap<String, int[]> recent = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private final InventoryMetrics.Counter hitCounter;
+    private final InventoryMetrics.Counter refinedCounter;
+    private final InventoryMetrics.Counter missCounter;
+    private String lastOutcome = "miss";
+
+    /**
+     * @param hitCounter counts queries answered straight from the cache
+     * @param refinedCounter counts queries answered by narrowing a cached result
+     * @param missCounter counts queries that needed a full search
+     */
+    SearchCache(InventoryMetrics.Counter hitCounter, InventoryMetrics.Counter refinedCounter,
+                InventoryMetrics.Counter missCounter) {
+        this.hitCounter = hitCounter;
+        this.refinedCounter = refinedCounter;
+        this.missCounter = missCounter;
+    }
+
+    /**
+     * Finds the records whose name contains the query, reusing cached results where possible.
+     * @param query
+     * @param names the index to search when the query isn't cached
+     * @return the IDs of the matches in Inventory order; the array must not be modified
+     */
+    int[] find(String query, NameIndex names) {
+        String key = query.toLowerCase();
+        int[] result = recent.get(key);
+        if (result != null) {
+            InventoryMetrics.count(hitCounter);
+            lastOutcome = "hit";
+            return result;
+        }
+
+        int[] narrower = longestCachedPrefix(key);
+        Matches matches = new Matches();
+        if (narrower != null) {
+            InventoryMetrics.count(refinedCounter);
+            lastOutcome = "refined";
+            for (int id : narrower) {
+                if (names.matches(id, key)) {
+                    matches.accept(id);
+                }
+            }
+        } else {
+            InventoryMetrics.count(missCounter);
+            lastOutcome = "miss";
+            names.search(key, matches);
+        }
+        result = matches.toArray();
+        // Everything matches an empty query, so there's no point holding on to a copy of the catalog for it.
+        if (!key.isEmpty()) {
+            recent.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    void invalidate() {
+        recent.clear();
+    }
+
+    /**
+     * @return how the last query was answered: hit if it was cached, refined if a cached result was narrowed,
+     * or miss if it needed a full search
+     */
+    String lastOutcome() {
+        return lastOutcome;
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    int size() {
+        return recent.size();
+    }
+
+    private int[] longestCachedPrefix(String key) {
+        for (int length = key.length() - 1; length > 0; length--) {
+            int[] cached = recent.get(key.substring(0, length));
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects matching IDs in the order they're found.
+     */
+    private static final class Matches implements IntConsumer {
+        private int[] ids = new int[16];
+        private int size;
+
+        @Override
+        public void accept(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for an Inventory search, so a recording can show which searches held up a thread.
+ * Recorded by default with every JFR recording; the event costs next to nothing when no recording is running.
+ *
+ * @author Zachary Mollenhour
+ */
+@Name("ims.InventorySearch")
+@Label("Inventory Search")
+@Category({"Inventory Management System", "Inventory"})
+@Description("A search of the Parts or Products by name or ID")
+@StackTrace(false)
+class SearchEvent extends jdk.jfr.Event {
+    @Label("Records")
+    @Description("Parts or Products")
+    String records;
+
+    @Label("Query")
+    String query;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Cache Result")
+    @Description("hit if the results were cached, refined if a cached search was narrowed, or miss")
+    String cacheResult;
+
+    /**
+     * Ends the event and commits it if a recording wants it.
+     * @param records
+     * @param query
+     * @param resultSize
+     * @param cacheResult
+     */
+    void end(String records, String query, int resultSize, String cacheResult) {
+        end();
+        if (shouldCommit()) {
+            this.records = records;
+            this.query = query;
+            this.resultSize = resultSize;
+            this.cacheResult = cacheResult;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package model;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * An indexed priority queue of records running short of stock, worst shortfall first.
+ * It's a binary heap with each record's position in the heap kept in a hash index, so a record's shortfall can be
+ * changed or removed in O(log n) without searching for it. Ties go to the lower ID, so the order is stable.
+ *
+ * @author Zachary Mollenhour
+ */
+class ShortfallQueue {
+    private final IntIntHashIndex positions = new IntIntHashIndex(-1);
+    private int[] ids = new int[16];
+    private int[] shortfalls = new int[16];
+    private int size;
+
+    /**
+     * Sets a record's shortfall, adding it to the queue if it's short and removing it if it isn't.
+     * @param id
+     * @param shortfall how far the record's stock is below its minimum
+     * @return whether the queue changed
+     */
+    boolean set(int id, int shortfall) {
+        int at = positions.get(id);
+        if (shortfall <= 0) {
+            if (at < 0) {
+                return false;
+            }
+            removeAt(at);
+            return true;
+        }
+        if (at < 0) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                shortfalls = Arrays.copyOf(shortfalls, size * 2);
+            }
+            ids[size] = id;
+            shortfalls[size] = shortfall;
+            positions.put(id, size);
+            siftUp(size++);
+            return true;
+        }
+        int previous = shortfalls[at];
+        if (previous == shortfall) {
+            return false;
+        }
+        shortfalls[at] = shortfall;
+        if (shortfall > previous) {
+            siftUp(at);
+        } else {
+            siftDown(at);
+        }
+        return true;
+    }
+
+    /**
+     * @param id
+     * @return whether the record was in the queue
+     */
+    boolean remove(int id) {
+        int at = positions.get(id);
+        if (at < 0) {
+            return false;
+        }
+        removeAt(at);
+        return true;
+    }
+
+    /**
+     * @return the number of records short of stock
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the worst records without disturbing the heap. A record can only be among the worst if its parent is,
+     * so the search only ever looks at the children of records already taken, costing O(limit log limit).
+     * @param limit
+     * @return the IDs of up to limit records, worst shortfall first
+     */
+    int[] top(int limit) {
+        int[] top = new int[Math.max(0, Math.min(limit, size))];
+        if (top.length == 0) {
+            return top;
+        }
+        PriorityQueue<Integer> frontier = new PriorityQueue<>(
+                (left, right) -> before(left, right) ? -1 : before(right, left) ? 1 : 0);
+        frontier.add(0);
+        for (int i = 0; i < top.length; i++) {
+            int at = frontier.poll();
+            top[i] = ids[at];
+            if (2 * at + 1 < size) {
+                frontier.add(2 * at + 1);
+            }
+            if (2 * at + 2 < size) {
+                frontier.add(2 * at + 2);
+            }
+        }
+        return top;
+    }
+
+    private void removeAt(int at) {
+        positions.remove(ids[at]);
+        int last = --size;
+        if (at == last) {
+            return;
+        }
+        ids[at] = ids[last];
+        shortfalls[at] = shortfalls[last];
+        positions.put(ids[at], at);
+        siftUp(at);
+        siftDown(positions.get(ids[at]));
+    }
+
+    private void siftUp(int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!before(at, parent)) {
+                return;
+            }
+            swap(at, parent);
+            at = parent;
+        }
+    }
+
+    private void siftDown(int at) {
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && before(child + 1, child)) {
+                child++;
+            }
+            if (!before(child, at)) {
+                return;
+            }
+            swap(at, child);
+            at = child;
+        }
+    }
+
+    /**
+     * @return whether the record at one position belongs ahead of the record at another
+     */
+    private boolean before(int left, int right) {
+        return shortfalls[left] > shortfalls[right]
+                || shortfalls[left] == shortfalls[right] && ids[left] < ids[right];
+    }
+
+    private void swap(int left, int right) {
+        int id = ids[left];
+        int shortfall = shortfalls[left];
+        ids[left] = ids[right];
+        shortfalls[left] = shortfalls[right];
+        ids[right] = id;
+        shortfalls[right] = shortfall;
+        positions.put(ids[left], left);
+        positions.put(ids[right], right);
+    }
+}
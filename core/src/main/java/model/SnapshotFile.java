@@ -0,0 +1,306 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A compact binary snapshot of the whole Inventory, read through a memory-mapped file.
+ *
+ * The file is laid out as a fixed header followed by four sections:
+ * <ol>
+ *     <li>Parts, as fixed-width {@value #PART_BYTES}-byte records.</li>
+ *     <li>Products, as fixed-width {@value #PRODUCT_BYTES}-byte records.</li>
+ *     <li>The IDs of every Product's associated Parts, as one run of ints per Product.</li>
+ *     <li>A string table holding each distinct name and company name once, as UTF-8.</li>
+ * </ol>
+ * Records refer to strings by their index in the table, so repeated names are stored and decoded only once.
+ * The header holds a CRC32 of everything after it, which is checked when the file is opened, so a snapshot that
+ * was damaged on disk is rejected rather than recovered from.
+ * Because every record has a fixed width, reading one is a handful of absolute reads from the mapped buffer
+ * with no parsing, and nothing is copied onto the heap until a record is actually materialized.
+ *
+ * @author Zachary Mollenhour
+ */
+class SnapshotFile {
+    private static final int MAGIC = 0x494D5332;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    static final int PART_BYTES = 36;
+    static final int PRODUCT_BYTES = 40;
+    private static final byte IN_HOUSE = 0;
+    private static final byte OUTSOURCED = 1;
+
+    private final ByteBuffer buffer;
+    private final long generation;
+    private final int partCount;
+    private final int productCount;
+    private final int partsOffset;
+    private final int productsOffset;
+    private final int associationsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringBytesOffset;
+    private final String[] strings;
+
+    private SnapshotFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an inventory snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported inventory snapshot version " + version);
+        }
+        generation = buffer.getLong(8);
+        partCount = buffer.getInt(16);
+        productCount = buffer.getInt(20);
+        int associationCount = buffer.getInt(24);
+        int stringCount = buffer.getInt(28);
+        partsOffset = HEADER_BYTES;
+        productsOffset = partsOffset + partCount * PART_BYTES;
+        associationsOffset = productsOffset + productCount * PRODUCT_BYTES;
+        stringOffsetsOffset = associationsOffset + associationCount * 4;
+        stringBytesOffset = stringOffsetsOffset + (stringCount + 1) * 4;
+        strings = new String[stringCount];
+        if (stringBytesOffset > buffer.limit()) {
+            throw new IOException("Inventory snapshot is truncated");
+        }
+        if (buffer.getInt(32) != checksum(buffer)) {
+            throw new IOException("Inventory snapshot is corrupt");
+        }
+    }
+
+    /**
+     * @return the CRC32 of everything after the header
+     */
+    private static int checksum(ByteBuffer buffer) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Maps a snapshot file into memory. Only the header is read up front.
+     * @param path
+     * @return the mapped snapshot
+     * @throws IOException if the file can't be mapped or isn't a snapshot
+     */
+    static SnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Inventory snapshot is too large to map");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SnapshotFile(mapped);
+        }
+    }
+
+    /**
+     * @return the generation of the first log written after this snapshot
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * @return the number of Parts in the snapshot
+     */
+    int partCount() {
+        return partCount;
+    }
+
+    /**
+     * @return the number of Products in the snapshot
+     */
+    int productCount() {
+        return productCount;
+    }
+
+    /**
+     * Materializes one Part.
+     * @param index
+     * @return part
+     */
+    Part part(int index) {
+        int at = partsOffset + index * PART_BYTES;
+        int id = buffer.getInt(at);
+        String name = string(buffer.getInt(at + 4));
+        double price = buffer.getDouble(at + 8);
+        int stock = buffer.getInt(at + 16);
+        int min = buffer.getInt(at + 20);
+        int max = buffer.getInt(at + 24);
+        if (buffer.get(at + 28) == OUTSOURCED) {
+            return new Outsourced(id, name, price, stock, min, max, string(buffer.getInt(at + 32)));
+        }
+        return new InHouse(id, name, price, stock, min, max, buffer.getInt(at + 32));
+    }
+
+    /**
+     * Materializes one Product, without its associated Parts.
+     * @param index
+     * @return product
+     */
+    Product product(int index) {
+        int at = productsOffset + index * PRODUCT_BYTES;
+        return new Product(buffer.getInt(at), string(buffer.getInt(at + 4)), buffer.getDouble(at + 8),
+                buffer.getInt(at + 16), buffer.getInt(at + 20), buffer.getInt(at + 24));
+    }
+
+    /**
+     * Reads the IDs of the Parts associated with one Product.
+     * @param index
+     * @return part IDs
+     */
+    int[] associatedPartIds(int index) {
+        int at = productsOffset + index * PRODUCT_BYTES;
+        int start = buffer.getInt(at + 28);
+        int[] partIds = new int[buffer.getInt(at + 32)];
+        for (int i = 0; i < partIds.length; i++) {
+            partIds[i] = buffer.getInt(associationsOffset + (start + i) * 4);
+        }
+        return partIds;
+    }
+
+    /**
+     * Replays the whole snapshot, Parts first.
+     * @param recovery
+     */
+    void replay(InventoryStore.Recovery recovery) {
+        for (int i = 0; i < partCount; i++) {
+            recovery.putPart(part(i));
+        }
+        for (int i = 0; i < productCount; i++) {
+            recovery.putProduct(product(i), associatedPartIds(i));
+        }
+    }
+
+    /**
+     * Decodes a string from the table the first time it's needed, so records sharing a name share one String.
+     */
+    private String string(int index) {
+        String value = strings[index];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetsOffset + index * 4);
+            int end = buffer.getInt(stringOffsetsOffset + (index + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringBytesOffset + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a snapshot, streaming the records out rather than building the file in memory.
+     * Each record is visited once. The association count, string count and checksum aren't known until every
+     * record has been written, so they're patched into the header at the end.
+     * @param path
+     * @param generation the generation of the first log written after this snapshot
+     * @param parts
+     * @param products
+     * @throws IOException
+     */
+    static void write(Path path, long generation, List<Part> parts, List<ProductRecord> products) throws IOException {
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> stringTable = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(generation).putInt(parts.size()).putInt(products.size());
+            header.rewind();
+            channel.write(header, 0);
+            channel.position(HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+
+            for (Part part : parts) {
+                out.writeInt(part.getId());
+                out.writeInt(intern(part.getName(), stringIndexes, stringTable));
+                out.writeDouble(part.getPrice());
+                out.writeInt(part.getStock());
+                out.writeInt(part.getMin());
+                out.writeInt(part.getMax());
+                if (part instanceof Outsourced) {
+                    out.writeInt(OUTSOURCED << 24);
+                    out.writeInt(intern(((Outsourced) part).getCompanyName(), stringIndexes, stringTable));
+                } else {
+                    out.writeInt(IN_HOUSE << 24);
+                    out.writeInt(part instanceof InHouse ? ((InHouse) part).getMachineId() : 0);
+                }
+            }
+
+            // The association IDs follow the Products, so they're gathered as each Product is written.
+            int[] associations = new int[Math.max(16, products.size())];
+            int associationCount = 0;
+            for (ProductRecord product : products) {
+                int size = product.getAssociatedPartCount();
+                out.writeInt(product.getId());
+                out.writeInt(intern(product.getName(), stringIndexes, stringTable));
+                out.writeDouble(product.getPrice());
+                out.writeInt(product.getStock());
+                out.writeInt(product.getMin());
+                out.writeInt(product.getMax());
+                out.writeInt(associationCount);
+                out.writeInt(size);
+                out.writeInt(0);
+                if (associationCount + size > associations.length) {
+                    associations = Arrays.copyOf(associations, Math.max(associations.length * 2,
+                            associationCount + size));
+                }
+                for (int i = 0; i < size; i++) {
+                    associations[associationCount++] = product.getAssociatedPartId(i);
+                }
+            }
+            for (int i = 0; i < associationCount; i++) {
+                out.writeInt(associations[i]);
+            }
+
+            List<byte[]> encoded = new ArrayList<>(stringTable.size());
+            int offset = 0;
+            out.writeInt(0);
+            for (String value : stringTable) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                offset += bytes.length;
+                out.writeInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+            out.flush();
+
+            ByteBuffer counts = ByteBuffer.allocate(12).putInt(associationCount).putInt(stringTable.size())
+                    .putInt((int) crc.getValue());
+            counts.flip();
+            channel.write(counts, 24);
+            channel.force(true);
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> indexes, List<String> table) {
+        return indexes.computeIfAbsent(value, key -> {
+            table.add(key);
+            return table.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package model;
+
+/**
+ * The reasons a field can fail validation.
+ * Each code carries the message shown to the user, with a placeholder for the name of the field.
+ *
+ * @author Zachary Mollenhour
+ */
+public enum ValidationCode {
+    /**
+     * The field isn't made up only of digits.
+     */
+    NOT_A_POSITIVE_INTEGER("%s must be a positive integer."),
+    /**
+     * The field is a whole number, but too large to store.
+     */
+    INTEGER_TOO_LARGE("%s must be no more than " + Integer.MAX_VALUE + "."),
+    /**
+     * The field isn't a decimal number, such as 12, -3 or 4.50.
+     */
+    NOT_A_DECIMAL("%s must be a decimal number."),
+    /**
+     * The minimum is greater than the maximum.
+     */
+    MIN_ABOVE_MAX("%s must be less than Max."),
+    /**
+     * The inventory level lies outside the minimum and maximum.
+     */
+    STOCK_OUT_OF_RANGE("%s must be greater than Min and less than Max.");
+
+    private final String message;
+
+    ValidationCode(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @param fieldName
+     * @return the message for this code, naming the field
+     */
+    public String message(String fieldName) {
+        return String.format(message, fieldName);
+    }
+}
@@ -0,0 +1,230 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses and validates the fields of a record, collecting a code for each field that fails.
+ *
+ * Each field is parsed in a single pass over its characters, which checks it and computes its value at once, so
+ * a valid field costs no regular expressions, no copies of the text and no allocation. Errors are recorded as a
+ * code and a field name, and only turned into messages when asked for. A validator can be reused by calling
+ * {@link #reset()}, so a bulk load can validate every record with one validator per thread.
+ *
+ * @author Zachary Mollenhour
+ */
+public class Validator {
+    // Powers of ten up to 10^22 are exact as doubles, which is what makes the fast path in parseDecimal exact.
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int INVALID = -1;
+    private static final int TOO_LARGE = -2;
+    private ValidationCode[] codes = new ValidationCode[4];
+    private String[] fields = new String[4];
+    private int count;
+
+    /**
+     * Creates a Validator with no errors recorded.
+     */
+    public Validator() {
+    }
+
+    /**
+     * Parses a positive integer, made up only of the digits 0-9.
+     * @param input
+     * @param fieldName
+     * @return the value, or 0 if the field is invalid
+     */
+    public int positiveInteger(CharSequence input, String fieldName) {
+        int value = parsePositiveInteger(input);
+        if (value >= 0) {
+            return value;
+        }
+        fail(value == TOO_LARGE ? ValidationCode.INTEGER_TOO_LARGE : ValidationCode.NOT_A_POSITIVE_INTEGER,
+                fieldName);
+        return 0;
+    }
+
+    /**
+     * Parses a decimal number: an optional minus sign, then digits, then optionally a point and more digits.
+     * @param input
+     * @param fieldName
+     * @return the value, or 0 if the field is invalid
+     */
+    public double decimal(CharSequence input, String fieldName) {
+        double value = parseDecimal(input);
+        if (Double.isNaN(value)) {
+            fail(ValidationCode.NOT_A_DECIMAL, fieldName);
+            return 0;
+        }
+        return value;
+    }
+
+    /**
+     * Checks that an inventory level lies between its minimum and maximum.
+     * @param stock
+     * @param min
+     * @param max
+     */
+    public void inventoryLevels(int stock, int min, int max) {
+        if (min > max) {
+            fail(ValidationCode.MIN_ABOVE_MAX, "Min");
+        }
+        if (stock < min || stock > max) {
+            fail(ValidationCode.STOCK_OUT_OF_RANGE, "Inv");
+        }
+    }
+
+    /**
+     * @return whether any field has failed since the validator was created or reset
+     */
+    public boolean hasErrors() {
+        return count > 0;
+    }
+
+    /**
+     * @return the number of failures recorded
+     */
+    public int errorCount() {
+        return count;
+    }
+
+    /**
+     * @param index
+     * @return why a field failed
+     */
+    public ValidationCode code(int index) {
+        checkIndex(index);
+        return codes[index];
+    }
+
+    /**
+     * @param index
+     * @return the name of the field that failed
+     */
+    public String fieldName(int index) {
+        checkIndex(index);
+        return fields[index];
+    }
+
+    /**
+     * @return a message for each failure, in the order they were recorded
+     */
+    public List<String> messages() {
+        List<String> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(codes[i].message(fields[i]));
+        }
+        return messages;
+    }
+
+    /**
+     * Forgets every failure, so the validator can be used for another record.
+     */
+    public void reset() {
+        Arrays.fill(fields, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Records a failure. Callers can use this for rules of their own, alongside the built-in ones.
+     * @param code
+     * @param fieldName
+     */
+    public void fail(ValidationCode code, String fieldName) {
+        if (count == codes.length) {
+            codes = Arrays.copyOf(codes, count * 2);
+            fields = Arrays.copyOf(fields, count * 2);
+        }
+        codes[count] = code;
+        fields[count] = fieldName;
+        count++;
+    }
+
+    /**
+     * Parses a positive integer without recording anything, for callers that only need to know whether text is one.
+     * @param input
+     * @return the value, or a negative number if the text isn't a positive integer that fits in an int
+     */
+    public static int parsePositiveInteger(CharSequence input) {
+        int length = input.length();
+        if (length == 0) {
+            return INVALID;
+        }
+        int value = 0;
+        boolean overflowed = false;
+        for (int i = 0; i < length; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                overflowed = true;
+            } else {
+                value = value * 10 + digit;
+            }
+        }
+        return overflowed ? TOO_LARGE : value;
+    }
+
+    /**
+     * Parses a decimal number without recording anything.
+     * @param input
+     * @return the value, or NaN if the text isn't a decimal number
+     */
+    public static double parseDecimal(CharSequence input) {
+        int length = input.length();
+        int i = 0;
+        boolean negative = length > 0 && input.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean exact = true;
+        boolean fraction = false;
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            if (c == '.') {
+                // A point needs digits on both sides, and there can only be one.
+                if (fraction || digits == 0 || i == length - 1) {
+                    return Double.NaN;
+                }
+                fraction = true;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return Double.NaN;
+            }
+            digits++;
+            if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                mantissa = mantissa * 10 + digit;
+                if (fraction) {
+                    scale++;
+                }
+            } else {
+                exact = false;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (exact && scale < POWERS_OF_TEN.length) {
+            // Both operands are exact, so a single division gives the correctly rounded result.
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        // Too many significant digits to be exact, which only hand-crafted input has. Let the JDK round it.
+        return Double.parseDouble(input.toString());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+    }
+}
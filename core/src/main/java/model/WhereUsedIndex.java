@@ -0,0 +1,92 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reverse index from Part IDs to the Products that have those Parts associated with them.
+ * Each Part ID maps to the Products using it, in the order they started using it, along with how many times each
+ * one lists the Part, so that removing one of several identical associations keeps the Product indexed.
+ *
+ * @author Zachary Mollenhour
+ */
+class WhereUsedIndex {
+    private final IntHashIndex<Map<Product, Integer>> productsByPartId = new IntHashIndex<>();
+
+    /**
+     * Indexes every Part associated with a Product.
+     * @param product
+     */
+    void add(Product product) {
+        for (Part part : product.getAllAssociatedParts()) {
+            add(product, part);
+        }
+    }
+
+    /**
+     * Drops every Part associated with a Product from the index.
+     * @param product
+     */
+    void remove(Product product) {
+        for (Part part : product.getAllAssociatedParts()) {
+            remove(product, part);
+        }
+    }
+
+    /**
+     * Records that a Product lists a Part once more.
+     * @param product
+     * @param part
+     */
+    void add(Product product, Part part) {
+        Map<Product, Integer> uses = productsByPartId.get(part.getId());
+        if (uses == null) {
+            uses = new LinkedHashMap<>();
+            productsByPartId.put(part.getId(), uses);
+        }
+        uses.merge(product, 1, Integer::sum);
+    }
+
+    /**
+     * Records that a Product lists a Part once less.
+     * @param product
+     * @param part
+     */
+    void remove(Product product, Part part) {
+        Map<Product, Integer> uses = productsByPartId.get(part.getId());
+        if (uses == null) {
+            return;
+        }
+        uses.computeIfPresent(product, (key, count) -> count == 1 ? null : count - 1);
+        if (uses.isEmpty()) {
+            productsByPartId.remove(part.getId());
+        }
+    }
+
+    /**
+     * @param partId
+     * @return the Products using the Part, each listed once
+     */
+    List<Product> productsUsing(int partId) {
+        Map<Product, Integer> uses = productsByPartId.get(partId);
+        return uses == null ? Collections.emptyList() : new ArrayList<>(uses.keySet());
+    }
+
+    /**
+     * @param partId
+     * @return whether any Product uses the Part
+     */
+    boolean isUsed(int partId) {
+        return productsByPartId.get(partId) != null;
+    }
+
+    /**
+     * @return the number of Parts used by at least one Product
+     */
+    int size() {
+        return productsByPartId.size();
+    }
+}
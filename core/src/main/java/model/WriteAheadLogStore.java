@@ -0,0 +1,426 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An InventoryStore backed by an append-only write-ahead log and periodic snapshots.
+ * Every change is encoded as one checksummed record and appended to the current log file, so a mutation costs
+ * a single sequential write. The log is forced to disk in batches by a background thread rather than once per
+ * record. Once enough records have built up, the log is rotated and the current Inventory contents are written
+ * to a {@link SnapshotFile} on a second background thread, so a large snapshot doesn't hold up the batches,
+ * after which the older logs are deleted.
+ *
+ * On startup the snapshot is read and the logs written after it are replayed. A record that was only partly
+ * written when the application stopped fails its checksum, and the log is truncated at that point.
+ *
+ * Strings are written as a length and then their UTF-8 bytes, so a name of any length can be logged.
+ *
+ * @author Zachary Mollenhour
+ */
+public class WriteAheadLogStore implements InventoryStore {
+    private static final long FLUSH_MILLIS = 50;
+    private static final int COMPACT_AFTER_RECORDS = 10_000;
+    private static final String SNAPSHOT_FILE = "inventory.snapshot";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final byte PUT_PART = 1;
+    private static final byte REMOVE_PART = 2;
+    private static final byte PUT_PRODUCT = 3;
+    private static final byte REMOVE_PRODUCT = 4;
+    private static final byte IN_HOUSE = 0;
+    private static final byte OUTSOURCED = 1;
+
+    private final Path directory;
+    private final ScheduledExecutorService flusher;
+    // Snapshots are written on their own thread, since one can take far longer than the flush interval.
+    private final ExecutorService compactor;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+    private FileChannel log;
+    private long logGeneration;
+    private int recordsSinceSnapshot;
+    private boolean dirty;
+    private boolean compacting;
+
+    /**
+     * Opens a store in the given directory, creating the directory if it doesn't exist yet.
+     * @param directory
+     * @throws IOException
+     */
+    public WriteAheadLogStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "inventory-wal"));
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "inventory-snapshot"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public synchronized void recover(Recovery recovery) throws IOException {
+        long snapshotGeneration = readSnapshot(recovery);
+        long[] generations = logGenerations();
+        long validLength = 0;
+        for (long generation : generations) {
+            if (generation < snapshotGeneration) {
+                Files.deleteIfExists(logPath(generation));
+                continue;
+            }
+            validLength = replayLog(logPath(generation), recovery);
+            logGeneration = generation;
+        }
+        if (logGeneration < snapshotGeneration) {
+            logGeneration = snapshotGeneration;
+            validLength = 0;
+        }
+
+        // Continue appending to the newest log, dropping any partly written record at its end.
+        log = FileChannel.open(logPath(logGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        log.truncate(validLength);
+        log.position(validLength);
+    }
+
+    @Override
+    public synchronized void putPart(Part part) {
+        try {
+            beginRecord(PUT_PART);
+            writePart(record, part);
+            append();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void removePart(int partId) {
+        try {
+            beginRecord(REMOVE_PART);
+            record.writeInt(partId);
+            append();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void putProduct(Product product) {
+        try {
+            beginRecord(PUT_PRODUCT);
+            writeProduct(record, product);
+            append();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void removeProduct(int productId) {
+        try {
+            beginRecord(REMOVE_PRODUCT);
+            record.writeInt(productId);
+            append();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean shouldCompact() {
+        return !compacting && recordsSinceSnapshot >= COMPACT_AFTER_RECORDS;
+    }
+
+    @Override
+    public synchronized void compact(List<Part> parts, List<ProductRecord> products) {
+        // Start a new log for the changes that follow, then write the snapshot that replaces the old logs.
+        long snapshotGeneration;
+        try {
+            log.force(false);
+            log.close();
+            snapshotGeneration = ++logGeneration;
+            log = FileChannel.open(logPath(logGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recordsSinceSnapshot = 0;
+        compacting = true;
+        compactor.execute(() -> writeSnapshot(snapshotGeneration, parts, products));
+    }
+
+    /**
+     * Forces any outstanding records to disk and stops the background threads, waiting for a snapshot that's
+     * being written to finish.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        compactor.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (log != null) {
+                log.force(false);
+                log.close();
+                log = null;
+            }
+        }
+    }
+
+    /**
+     * Starts encoding a new record, discarding anything left over from a record that failed to encode.
+     * @param type
+     * @throws IOException
+     */
+    private void beginRecord(byte type) throws IOException {
+        recordBytes.reset();
+        record.writeByte(type);
+    }
+
+    /**
+     * Frames the record built up in recordBytes and appends it to the log.
+     * Frames are laid out as the payload length, a CRC32 of the payload and then the payload itself.
+     * @throws IOException
+     */
+    private void append() throws IOException {
+        if (log == null) {
+            throw new IOException("The store must be recovered before it can be written to");
+        }
+        byte[] payload = recordBytes.toByteArray();
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(8 + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (frame.hasRemaining()) {
+            log.write(frame);
+        }
+        dirty = true;
+        recordsSinceSnapshot++;
+    }
+
+    private synchronized void flushQuietly() {
+        if (!dirty || log == null) {
+            return;
+        }
+        try {
+            log.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            // The records remain in the OS cache and the next flush will try again.
+        }
+    }
+
+    /**
+     * Replays one log file.
+     * @param path
+     * @param recovery
+     * @return the length of the log up to the end of its last complete record
+     * @throws IOException
+     */
+    private long replayLog(Path path, Recovery recovery) throws IOException {
+        long size = Files.size(path);
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || validLength + 8 + length > size) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                applyRecord(new DataInputStream(new ByteArrayInputStream(payload)), recovery);
+                validLength += 8 + length;
+                recordsSinceSnapshot++;
+            }
+        }
+        return validLength;
+    }
+
+    private static void applyRecord(DataInputStream in, Recovery recovery) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case PUT_PART:
+                recovery.putPart(readPart(in));
+                break;
+            case REMOVE_PART:
+                recovery.removePart(in.readInt());
+                break;
+            case PUT_PRODUCT:
+                readProduct(in, recovery);
+                break;
+            case REMOVE_PRODUCT:
+                recovery.removeProduct(in.readInt());
+                break;
+            default:
+                throw new IOException("Unknown log record type " + op);
+        }
+    }
+
+    /**
+     * Reads the snapshot, if there is one.
+     * @param recovery
+     * @return the generation of the first log written after the snapshot
+     * @throws IOException
+     */
+    private long readSnapshot(Recovery recovery) throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        SnapshotFile snapshot = SnapshotFile.open(path);
+        snapshot.replay(recovery);
+        return snapshot.generation();
+    }
+
+    private void writeSnapshot(long generation, List<Part> parts, List<ProductRecord> products) {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            SnapshotFile.write(temp, generation, parts, products);
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            for (long older : logGenerations()) {
+                if (older < generation) {
+                    Files.deleteIfExists(logPath(older));
+                }
+            }
+        } catch (IOException e) {
+            // The old logs are still in place, so nothing is lost; the next compaction will try again.
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private long[] logGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path path : logs) {
+                String name = path.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours.
+                }
+            }
+        }
+        return generations.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private static void writePart(DataOutputStream out, Part part) throws IOException {
+        out.writeInt(part.getId());
+        writeString(out, part.getName());
+        out.writeDouble(part.getPrice());
+        out.writeInt(part.getStock());
+        out.writeInt(part.getMin());
+        out.writeInt(part.getMax());
+        if (part instanceof Outsourced) {
+            out.writeByte(OUTSOURCED);
+            writeString(out, ((Outsourced) part).getCompanyName());
+        } else {
+            out.writeByte(IN_HOUSE);
+            out.writeInt(part instanceof InHouse ? ((InHouse) part).getMachineId() : 0);
+        }
+    }
+
+    private static Part readPart(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        String name = readString(in);
+        double price = in.readDouble();
+        int stock = in.readInt();
+        int min = in.readInt();
+        int max = in.readInt();
+        if (in.readByte() == OUTSOURCED) {
+            return new Outsourced(id, name, price, stock, min, max, readString(in));
+        }
+        return new InHouse(id, name, price, stock, min, max, in.readInt());
+    }
+
+    private static void writeProduct(DataOutputStream out, Product product) throws IOException {
+        out.writeInt(product.getId());
+        writeString(out, product.getName());
+        out.writeDouble(product.getPrice());
+        out.writeInt(product.getStock());
+        out.writeInt(product.getMin());
+        out.writeInt(product.getMax());
+        List<Part> associatedParts = product.getAllAssociatedParts();
+        out.writeInt(associatedParts.size());
+        for (Part part : associatedParts) {
+            out.writeInt(part.getId());
+        }
+    }
+
+    private static void readProduct(DataInputStream in, Recovery recovery) throws IOException {
+        Product product = new Product(in.readInt(), readString(in), in.readDouble(), in.readInt(),
+                in.readInt(), in.readInt());
+        int[] associatedPartIds = new int[in.readInt()];
+        for (int i = 0; i < associatedPartIds.length; i++) {
+            associatedPartIds[i] = in.readInt();
+        }
+        recovery.putProduct(product, associatedPartIds);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Log record has a string of invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
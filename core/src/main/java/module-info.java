@@ -0,0 +1,12 @@
+/**
+ * The inventory model, its persistence and CSV import/export. Deliberately has no JavaFX dependency, so it can be
+ * used headless by the benchmarks and any future service front end.
+ * @author Zachary Mollenhour
+ */
+module ims.core {
+    requires java.management;
+    requires jdk.jfr;
+
+    exports model;
+    exports ims.io;
+}
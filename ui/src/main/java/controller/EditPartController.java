@@ -1,33 +1,33 @@
 package controller;
 
+import ims.ReusableView;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import model.InHouse;
 import model.Inventory;
+import model.InventoryMetrics;
 import model.Outsourced;
 import model.Part;
+import model.Validator;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Optional;
 
 import static ims.Main.*;
-import static ims.Validation.validateDouble;
-import static ims.Validation.validatePositiveInteger;
 
 /**
  * Controller for the add/modify part screens.
  *
  * @author Zachary Mollenhour
  */
-public class EditPartController {
+public class EditPartController implements ReusableView {
     private final String newIdText = "To be calculated";
     private final String labelAltTextInHouse = "Machine ID";
     private final String labelAltTextOutsourced = "Company Name";
     private Stage stage;
-    private int partIndex = -1;
+    private boolean editing;
     @FXML
     private Label labelViewTitle, labelAlt;
     @FXML
@@ -37,6 +37,20 @@ public class EditPartController {
     @FXML
     private TextField inputId, inputName, inputStock, inputPrice, inputMax, inputMin, inputAlt;
 
+    /**
+     * Clears the form, so the cached view can be used for the next Part.
+     */
+    @Override
+    public void reset() {
+        for (TextField input : new TextField[]{inputId, inputName, inputStock, inputPrice, inputMax, inputMin,
+                inputAlt}) {
+            input.clear();
+        }
+        inputSourceIn.setSelected(true);
+        labelAlt.setText(labelAltTextInHouse);
+        editing = false;
+    }
+
     /**
      * * Updates the view to that of an Add Part form.
      */
@@ -49,10 +63,9 @@ public class EditPartController {
 
     /**
      * Updates the view to that of an Edit Part form.
-     * @param selectedIndex
      * @param selectedPart
      */
-    public void startEdit(int selectedIndex, Part selectedPart) {
+    public void startEdit(Part selectedPart) {
         labelViewTitle.setText("Modify Part");
         if (selectedPart instanceof InHouse) {
             labelAlt.setText(labelAltTextInHouse);
@@ -69,7 +82,7 @@ public class EditPartController {
         inputPrice.setText(String.valueOf(selectedPart.getPrice()));
         inputMax.setText(String.valueOf(selectedPart.getMax()));
         inputMin.setText(String.valueOf(selectedPart.getMin()));
-        partIndex = selectedIndex;
+        editing = true;
     }
 
 
@@ -91,35 +104,27 @@ public class EditPartController {
      * Saves changes and returns to the Main Screen.
      * This confirms changes with the user about the Part they're adding or modifying and then saves those changes.
      *
-     * Within this function, I encountered a troublesome logical error in line 197
-     * I had initially written if partIndex greater than  0 instead of greater than or equal than 0 which would
-     * cause issues to occur on the first part being modified as the initial value of the partIndex is -1
-     * so when it added one to that the logic was invalid as it was not greater than 0
-     *
      * @param actionEvent
      * @throws IOException
      */
     @FXML
     public void onActionSavePart(ActionEvent actionEvent) throws IOException {
-        ArrayList<String> validationErrors = new ArrayList<>();
+        Validator validator = new Validator();
         Part stagedPart;
 
-        // Parse and validate the form data, storing validation errors in an array.
-        int id = inputId.getText().equals(newIdText) ? Inventory.getNextPartId() : Integer.parseInt(inputId.getText());
+        // Parse and validate the form data, collecting any validation errors in the validator. A new Part is only
+        // given its ID once it's confirmed, so abandoned forms don't use IDs up.
+        boolean adding = inputId.getText().equals(newIdText);
+        int id = adding ? -1 : Integer.parseInt(inputId.getText());
         String name = inputName.getText();
-        int stock = validatePositiveInteger(inputStock, validationErrors, "Inv");
-        double price = validateDouble(inputPrice, validationErrors, "Price/Cost");
-        int max = validatePositiveInteger(inputMax, validationErrors, "Max");
-        int min = validatePositiveInteger(inputMin, validationErrors, "Min");
-        if (min > max) {
-            validationErrors.add("Min must be less than Max.");
-        }
-        if (stock < min || stock > max) {
-            validationErrors.add("Inv must be greater than Min and less than Max.");
-        }
+        int stock = validator.positiveInteger(inputStock.getText(), "Inv");
+        double price = validator.decimal(inputPrice.getText(), "Price/Cost");
+        int max = validator.positiveInteger(inputMax.getText(), "Max");
+        int min = validator.positiveInteger(inputMin.getText(), "Min");
+        validator.inventoryLevels(stock, min, max);
         // And depending on the selection, initialize our staged part appropriately.
         if (inputSourceIn.isSelected()) {
-            int machineId = validatePositiveInteger(inputAlt, validationErrors, labelAltTextInHouse);
+            int machineId = validator.positiveInteger(inputAlt.getText(), labelAltTextInHouse);
             stagedPart = new InHouse(id, name, price, stock, min, max, machineId);
         } else {
             String companyName = inputAlt.getText();
@@ -127,17 +132,17 @@ public class EditPartController {
         }
 
         // Inform the user if any validation failed, and return to the edit screen if so.
-        if (validationErrors.size() > 0) {
+        if (validator.hasErrors()) {
             Alert alert = detailedAlert(Alert.AlertType.ERROR, "One or more fields failed to validate. Please " +
-                    "review the following and make the necessary corrections.", String.join("\n", validationErrors));
+                    "review the following and make the necessary corrections.", String.join("\n", validator.messages()));
             fixAlertDisplay(alert);
             alert.showAndWait();
             return;
         }
 
         // Prepare and display a confirmation dialog showing (mostly) parsed values.
-        String confirmData = String.format("ID: %d\nName: %s\nInventory: %d\nUnit Price: %.2f\nMax: %d\nMin: %d\n%s: %s",
-                id, name, stock, price, max, min, labelAlt.getText(), inputAlt.getText());
+        String confirmData = String.format("ID: %s\nName: %s\nInventory: %d\nUnit Price: %.2f\nMax: %d\nMin: %d\n%s: %s",
+                adding ? newIdText : id, name, stock, price, max, min, labelAlt.getText(), inputAlt.getText());
         Alert alert = detailedAlert(Alert.AlertType.CONFIRMATION,
                 "Please review the following details and confirm they are correct.", confirmData);
         fixAlertDisplay(alert);
@@ -146,16 +151,24 @@ public class EditPartController {
             return;
         }
 
-        // Check if a partIndex was specified for an existing part we're editing, and update that particular part in the
-        // inventory, otherwise create a new one, and then return to the main screen.
-        if (partIndex >= 0) {
-            Inventory.updatePart(partIndex, stagedPart);
-        } else {
+        // Update the part we're editing, found by its ID, or create a new one if we're adding a part or the one being
+        // edited has been deleted since, and then return to the main screen. The save is timed from here, so the time
+        // spent reading dialogs isn't counted.
+        long saveStart = InventoryMetrics.start();
+        SaveEvent saveEvent = new SaveEvent();
+        saveEvent.begin();
+        if (adding) {
+            stagedPart.setId(Inventory.getNextPartId());
+        }
+        if (!editing || !Inventory.updatePart(stagedPart)) {
             Inventory.addPart(stagedPart);
         }
+        // The save metric covers only the Inventory call, while the event also covers reloading the main screen.
+        InventoryMetrics.record(InventoryMetrics.Operation.SAVE_PART, saveStart);
 
         stage = (Stage) ((Button) actionEvent.getSource()).getScene().getWindow();
         loadView(stage, "/view/MainScreen.fxml");
+        saveEvent.end("Part", stagedPart.getId(), !editing);
     }
 
 
@@ -1,38 +1,41 @@
 package controller;
 
+import ims.ReusableView;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyEvent;
 import javafx.stage.Stage;
 import model.Inventory;
+import model.InventoryMetrics;
 import model.Part;
 import model.Product;
+import model.Validator;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 import static ims.Main.*;
-import static ims.Validation.validateDouble;
-import static ims.Validation.validatePositiveInteger;
 
 /**
  * Controller for the add/modify product screens.
  *
  * @author Zachary Mollenhour
  */
-public class EditProductController implements Initializable {
+public class EditProductController implements Initializable, ReusableView {
     private static final String newIdText = "Automatically Generated";
     private Stage stage;
-    private int productIndex = -1;
+    private boolean editing;
     private ObservableList<Part> associatedParts;
+    private final SearchService<Part> partSearchService = new SearchService<>(Inventory::searchParts);
+    private final PagedList<Part> allPartsPage = new PagedList<>(InventoryViews.getAllParts());
     @FXML
     private Label labelViewTitle, partTablePlaceholder;
     @FXML
@@ -48,6 +51,22 @@ public class EditProductController implements Initializable {
     @FXML
     private TableColumn<Part, Double> partPriceCol, associatedPartPriceCol;
 
+    /**
+     * Clears the form, the part search and the associated parts, so the cached view can be used for the next Product.
+     */
+    @Override
+    public void reset() {
+        partSearchService.cancel();
+        for (TextField input : new TextField[]{inputId, inputName, inputStock, inputPrice, inputMax, inputMin,
+                partSearch}) {
+            input.clear();
+        }
+        showPartResults("", List.of());
+        partTableView.getSelectionModel().clearSelection();
+        associatedParts.clear();
+        editing = false;
+    }
+
     /**
      * Perform updates on the view to that of an Add Product form.
      */
@@ -60,10 +79,9 @@ public class EditProductController implements Initializable {
      * Updates the view to that of an Edit Product form.
      * This populates fields with information from an existing product.
      *
-     * @param selectedIndex   the index of the Product to edit.
      * @param selectedProduct the Product to edit.
      */
-    public void startEdit(int selectedIndex, Product selectedProduct) {
+    public void startEdit(Product selectedProduct) {
         labelViewTitle.setText("Modify Product");
         inputId.setText(String.valueOf(selectedProduct.getId()));
         inputName.setText(selectedProduct.getName());
@@ -73,7 +91,7 @@ public class EditProductController implements Initializable {
         inputMin.setText(String.valueOf(selectedProduct.getMin()));
         associatedParts.setAll(selectedProduct.getAllAssociatedParts());
         associatedPartTableView.setItems(associatedParts);
-        productIndex = selectedIndex;
+        editing = true;
     }
 
     /**
@@ -83,7 +101,23 @@ public class EditProductController implements Initializable {
      */
     public void onKeySearchPart(KeyEvent keyEvent) {
         String searchInput = partSearch.getText();
-        partTableView.setItems(Inventory.getFilteredParts(searchInput));
+        if (searchInput.isEmpty()) {
+            // An empty query shows every Part, which the paged list already does without searching.
+            partSearchService.cancel();
+            showPartResults(searchInput, List.of());
+        } else {
+            partSearchService.submit(searchInput, results -> showPartResults(searchInput, results));
+        }
+    }
+
+    /**
+     * Shows the results of a background part search in the parts table.
+     * @param searchInput
+     * @param results
+     */
+    private void showPartResults(String searchInput, List<Part> results) {
+        partTableView.setItems(searchInput.isEmpty() ? allPartsPage : FXCollections.observableArrayList(results));
+        partTableView.sort();
         if (searchInput.isEmpty()) {
             partTablePlaceholder.setText("No parts found. To add one, go back to the main screen.");
         } else {
@@ -140,31 +174,23 @@ public class EditProductController implements Initializable {
      * Parses and validates form data for a partID and other part elements
      * Creates staged product and saves it unless an error occurs in which it displays an alert
      *
-     * Within this function, I encountered a troublesome logical error in line 197
-     * I had initially written if product index is greater than 0 instead of greater than or equal to 0 which would
-     * cause issues to occur on the first part being modified as the inital value of the product index is -1
-     * so when it added one to that the logic was invalid as it was not greater than 0
-     *
      * @param actionEvent
      * @throws IOException
      */
     public void onActionSavePart(ActionEvent actionEvent) throws IOException {
-        ArrayList<String> validationErrors = new ArrayList<>();
+        Validator validator = new Validator();
         Part stagedPart;
 
-        // Parse and validate the form data, storing validation errors in an array.
-        int id = inputId.getText().equals(newIdText) ? Inventory.getNextProductId() : Integer.parseInt(inputId.getText());
+        // Parse and validate the form data, collecting any validation errors in the validator. A new Product is only
+        // given its ID once it's confirmed, so abandoned forms don't use IDs up.
+        boolean adding = inputId.getText().equals(newIdText);
+        int id = adding ? -1 : Integer.parseInt(inputId.getText());
         String name = inputName.getText();
-        int stock = validatePositiveInteger(inputStock, validationErrors, "Inv");
-        double price = validateDouble(inputPrice, validationErrors, "Price");
-        int max = validatePositiveInteger(inputMax, validationErrors, "Max");
-        int min = validatePositiveInteger(inputMin, validationErrors, "Min");
-        if (min > max) {
-            validationErrors.add("Min must be less than Max.");
-        }
-        if (stock < min || stock > max) {
-            validationErrors.add("Inv must be greater than Min and less than Max.");
-        }
+        int stock = validator.positiveInteger(inputStock.getText(), "Inv");
+        double price = validator.decimal(inputPrice.getText(), "Price");
+        int max = validator.positiveInteger(inputMax.getText(), "Max");
+        int min = validator.positiveInteger(inputMin.getText(), "Min");
+        validator.inventoryLevels(stock, min, max);
 
         // Initialize the staged product and associate the parts from the controller.
         Product stagedProduct = new Product(id, name, price, stock, min, max);
@@ -173,17 +199,18 @@ public class EditProductController implements Initializable {
         }
 
         // Inform the user if any validation failed, and return to the edit screen if so.
-        if (validationErrors.size() > 0) {
+        if (validator.hasErrors()) {
             Alert alert = detailedAlert(Alert.AlertType.ERROR, "One or more fields failed to validate. Please " +
-                    "review the following and make the necessary corrections.", String.join("\n", validationErrors));
+                    "review the following and make the necessary corrections.", String.join("\n", validator.messages()));
             fixAlertDisplay(alert);
             alert.showAndWait();
             return;
         }
 
         // Prepare and display a confirmation dialog showing (mostly) parsed values.
-        StringBuilder confirmData = new StringBuilder(String.format("ID: %d\nName: %s\nInventory: %d\n" +
-                "Unit Price: %.2f\nMax: %d\nMin: %d\nAssociated Parts:\n", id, name, stock, price, max, min));
+        StringBuilder confirmData = new StringBuilder(String.format("ID: %s\nName: %s\nInventory: %d\n" +
+                "Unit Price: %.2f\nMax: %d\nMin: %d\nAssociated Parts:\n", adding ? newIdText : id, name, stock, price,
+                max, min));
         for (Part stagedAssociatedPart : associatedParts) {
             confirmData.append(String.format("\t%s\n", stagedAssociatedPart.getName()));
         }
@@ -195,16 +222,24 @@ public class EditProductController implements Initializable {
             return;
         }
 
-        // Check if a productIndex was specified for an existing product we're editing, and update that particular
-        // product in the inventory, otherwise create a new one, and then return to the main screen.
-        if (productIndex >= 0) {
-            Inventory.updateProduct(productIndex, stagedProduct);
-        } else {
+        // Update the product we're editing, found by its ID, or create a new one if we're adding a product or the one
+        // being edited has been deleted since, and then return to the main screen. The save is timed from here, so the
+        // time spent reading dialogs isn't counted.
+        long saveStart = InventoryMetrics.start();
+        SaveEvent saveEvent = new SaveEvent();
+        saveEvent.begin();
+        if (adding) {
+            stagedProduct.setId(Inventory.getNextProductId());
+        }
+        if (!editing || !Inventory.updateProduct(stagedProduct)) {
             Inventory.addProduct(stagedProduct);
         }
+        // The save metric covers only the Inventory call, while the event also covers reloading the main screen.
+        InventoryMetrics.record(InventoryMetrics.Operation.SAVE_PRODUCT, saveStart);
 
         stage = (Stage) ((Button) actionEvent.getSource()).getScene().getWindow();
         loadView(stage, "/view/MainScreen.fxml");
+        saveEvent.end("Product", stagedProduct.getId(), !editing);
     }
 
     /**
@@ -235,15 +270,16 @@ public class EditProductController implements Initializable {
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        partTableView.setItems(Inventory.getAllParts());
-        partIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-        partNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-        partInventoryCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        partPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
-        associatedPartIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-        associatedPartNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-        associatedPartInventoryCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        associatedPartPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        partTableView.setItems(allPartsPage);
+        partTableView.setSortPolicy(PagedList.sortPolicy());
+        partIdCol.setCellValueFactory(cellValue(Part::getId));
+        partNameCol.setCellValueFactory(cellValue(Part::getName));
+        partInventoryCol.setCellValueFactory(cellValue(Part::getStock));
+        partPriceCol.setCellValueFactory(cellValue(Part::getPrice));
+        associatedPartIdCol.setCellValueFactory(cellValue(Part::getId));
+        associatedPartNameCol.setCellValueFactory(cellValue(Part::getName));
+        associatedPartInventoryCol.setCellValueFactory(cellValue(Part::getStock));
+        associatedPartPriceCol.setCellValueFactory(cellValue(Part::getPrice));
         associatedParts = FXCollections.observableArrayList();
     }
 }
@@ -0,0 +1,41 @@
+package controller;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+/**
+ * Observable views of every Part and Product, for the UI's tables.
+ * The views listen to the Inventory on the JavaFX Application Thread, so a writer on another thread never waits
+ * for the UI and the UI never sees a half-made change.
+ *
+ * @author Zachary Mollenhour
+ */
+public class InventoryViews {
+    private static final SnapshotList<Part> allParts = new SnapshotList<>(() -> Inventory.snapshot().getParts());
+    private static final SnapshotList<Product> allProducts =
+            new SnapshotList<>(() -> Inventory.snapshot().getProducts());
+
+    static {
+        Inventory.addListener((partChange, productChange, snapshot) -> {
+            allParts.publish(partChange, snapshot.getParts());
+            allProducts.publish(productChange, snapshot.getProducts());
+        }, Platform::runLater);
+    }
+
+    /**
+     * @return an observable list of all Parts
+     */
+    public static ObservableList<Part> getAllParts() {
+        return allParts;
+    }
+
+    /**
+     * @return an observable list of all Products
+     */
+    public static ObservableList<Product> getAllProducts() {
+        return allProducts;
+    }
+}
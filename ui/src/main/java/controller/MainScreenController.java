@@ -0,0 +1,471 @@
+package controller;
+
+import ims.io.InventoryExporter;
+import ims.io.InventoryImporter;
+import ims.ReusableView;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.fxml.Initializable;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+import static ims.Main.cellValue;
+import static ims.Main.detailedAlert;
+import static ims.Main.fixAlertDisplay;
+import static ims.Main.loadView;
+
+/**
+ * Controller for the main screen.
+ *
+ * @author Zachary Mollenhour
+ */
+public class MainScreenController implements Initializable, ReusableView {
+    Stage stage;
+    @FXML
+    private Label partTablePlaceholder, productTablePlaceholder;
+    @FXML
+    private TextField partSearch, productSearch;
+    @FXML
+    private TableView<Part> partTableView;
+    @FXML
+    private TableColumn<Part, Integer> partIdCol, partInventoryCol;
+    @FXML
+    private TableColumn<Part, String> partNameCol;
+    @FXML
+    private TableColumn<Part, Double> partPriceCol;
+    @FXML
+    private TableView<Product> productTableView;
+    @FXML
+    private TableColumn<Product, Integer> productIdCol, productInventoryCol, productBuildableCol;
+    @FXML
+    private TableColumn<Product, String> productNameCol;
+    @FXML
+    private TableColumn<Product, Double> productPriceCol;
+    private final SearchService<Part> partSearchService = new SearchService<>(Inventory::searchParts);
+    private final SearchService<Product> productSearchService = new SearchService<>(Inventory::searchProducts);
+    // Unfiltered views of the Inventory that only materialize the rows on screen.
+    private final PagedList<Part> allPartsPage = new PagedList<>(InventoryViews.getAllParts());
+    private final PagedList<Product> allProductsPage = new PagedList<>(InventoryViews.getAllProducts());
+
+
+    /**
+     * Function used for refreshing the parts table in the main screen when
+     * performing a serach
+     * Displays an error if no items are found
+     * A search is rerun in the background, like one typed in, so the table never waits for the Inventory lock.
+     */
+    private void refreshPartTable() {
+        String searchInput = partSearch.getText();
+        if (searchInput.isEmpty()) {
+            partSearchService.cancel();
+            showPartResults(searchInput, List.of());
+        } else {
+            partSearchService.submit(searchInput, results -> showPartResults(searchInput, results));
+        }
+    }
+
+
+    /**
+     * Shows the results of a background part search in the parts table.
+     * @param searchInput
+     * @param results
+     */
+    private void showPartResults(String searchInput, List<Part> results) {
+        partTableView.setItems(searchInput.isEmpty() ? allPartsPage : FXCollections.observableArrayList(results));
+        partTableView.sort();
+        updatePartPlaceholder(searchInput);
+    }
+
+
+    /**
+     * Updates the parts table placeholder to suit the current search, selecting the first match if there is one.
+     * @param searchInput
+     */
+    private void updatePartPlaceholder(String searchInput) {
+        if (searchInput.isEmpty()) {
+            partTablePlaceholder.setText("Click Add to add a new part.");
+        } else {
+            partTablePlaceholder.setText("No items matched your search query. Please try again.");
+            if (partTableView.getItems().size() > 0) {
+                partTableView.getSelectionModel().select(0);
+            }
+        }
+    }
+
+
+    /**
+     * Searches parts in the background as the user types.
+     * @param keyEvent
+     */
+    @FXML
+    public void onKeySearchPart(KeyEvent keyEvent) {
+        refreshPartTable();
+    }
+
+
+    /**
+     * Action event for adding parts and calling the Editpart view
+     * @param actionEvent for clicking add part button
+     * @throws IOException error to be thrown
+     */
+    @FXML
+    public void onActionAddPart(ActionEvent actionEvent) throws IOException {
+        stage = (Stage) ((Button) actionEvent.getSource()).getScene().getWindow();
+        FXMLLoader loader = loadView(stage, "/view/EditPartView.fxml");
+        EditPartController editCtrl = loader.getController();
+        editCtrl.startAdd();
+    }
+
+
+    /**
+     * Action event for modifying  a part
+     * Displays an error if the form input is empty
+     * calls the edit part view if succesful
+     * @param actionEvent
+     * @throws IOException
+     */
+    @FXML
+    public void onActionModifyPart(ActionEvent actionEvent) throws IOException {
+        if (partTableView.getSelectionModel().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "You must select a part to modify!");
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+            return;
+        }
+
+        stage = (Stage) ((Button) actionEvent.getSource()).getScene().getWindow();
+        FXMLLoader loader = loadView(stage, "/view/EditPartView.fxml");
+        EditPartController editCtrl = loader.getController();
+        editCtrl.startEdit(partTableView.getSelectionModel().getSelectedItem());
+    }
+
+
+    /**
+     * Action event for deletion of a part
+     * If successful will display a confirmation form
+     * Otherwise, it will display an alert, including when the part is still associated with a product
+     * @param actionEvent
+     */
+    @FXML
+    public void onActionDeletePart(ActionEvent actionEvent) {
+        if (partTableView.getSelectionModel().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "You must select a part to delete!");
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+            return;
+        }
+
+        // The Products using the Part are looked up in the background, since an import may be holding the Inventory.
+        Part selectedPart = partTableView.getSelectionModel().getSelectedItem();
+        CompletableFuture.supplyAsync(() -> Inventory.lookupProductsUsingPart(selectedPart.getId()))
+                .thenAcceptAsync(usingProducts -> confirmDeletePart(selectedPart, usingProducts), Platform::runLater);
+    }
+
+
+    /**
+     * Deletes a Part once the user confirms, unless Products are still using it.
+     * @param selectedPart
+     * @param usingProducts the Products that have the Part associated with them
+     */
+    private void confirmDeletePart(Part selectedPart, List<Product> usingProducts) {
+        if (!usingProducts.isEmpty()) {
+            StringBuilder message = new StringBuilder("The selected part is associated with the following products:\n\n");
+            for (Product product : usingProducts) {
+                message.append(String.format("\t%s\n", product.getName()));
+            }
+            message.append("\nDisassociate the part from these products before deleting.");
+            Alert alert = new Alert(Alert.AlertType.WARNING, message.toString());
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Are you sure you want to delete the following part?\n\n" + selectedPart.getName());
+        fixAlertDisplay(alert);
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            Inventory.deletePart(selectedPart);
+            refreshPartTable();
+        }
+    }
+
+
+    /**
+     * Reset function for refreshing the product table adn searching parts on main screen
+     * A search is rerun in the background, in the same way as for the parts table.
+     */
+    private void refreshProductTable() {
+        String searchInput = productSearch.getText();
+        if (searchInput.isEmpty()) {
+            productSearchService.cancel();
+            showProductResults(searchInput, List.of());
+        } else {
+            productSearchService.submit(searchInput, results -> showProductResults(searchInput, results));
+        }
+    }
+
+
+    /**
+     * Shows the results of a background product search in the products table.
+     * @param searchInput
+     * @param results
+     */
+    private void showProductResults(String searchInput, List<Product> results) {
+        productTableView.setItems(searchInput.isEmpty() ? allProductsPage
+                : FXCollections.observableArrayList(results));
+        productTableView.sort();
+        updateProductPlaceholder(searchInput);
+    }
+
+
+    /**
+     * Updates the products table placeholder to suit the current search, selecting the first match if there is one.
+     * @param searchInput
+     */
+    private void updateProductPlaceholder(String searchInput) {
+        if (searchInput.isEmpty()) {
+            productTablePlaceholder.setText("Click Add to add a new product.");
+        } else {
+            productTablePlaceholder.setText("No items matched your search query. Please try again.");
+            if (productTableView.getItems().size() > 0) {
+                productTableView.getSelectionModel().select(0);
+            }
+        }
+    }
+
+
+    /**
+     * Searches products in the background as the user types.
+     * @param event
+     */
+    @FXML
+    public void onKeySearchProduct(KeyEvent event) {
+        refreshProductTable();
+    }
+
+
+    /**
+     * Action Event for adding a product
+     * If succesful will call the edit product view
+     * @param actionEvent
+     * @throws IOException
+     */
+    @FXML
+    public void onActionAddProduct(ActionEvent actionEvent) throws IOException {
+        stage = (Stage) ((Button) actionEvent.getSource()).getScene().getWindow();
+        FXMLLoader loader = loadView(stage, "/view/EditProductView.fxml");
+        EditProductController editCtrl = loader.getController();
+        editCtrl.startAdd();
+    }
+
+
+    /**
+     * Action event for modifying a product. If no input is found it will display an alert
+     * Otherwise, it calls the edit product view
+     * @param actionEvent
+     * @throws IOException
+     */
+    @FXML
+    public void onActionModifyProduct(ActionEvent actionEvent) throws IOException {
+        if (productTableView.getSelectionModel().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "You must select a product to modify!");
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+            return;
+        }
+
+        stage = (Stage) ((Button) actionEvent.getSource()).getScene().getWindow();
+        FXMLLoader loader = loadView(stage, "/view/EditProductView.fxml");
+        EditProductController editCtrl = loader.getController();
+        editCtrl.startEdit(productTableView.getSelectionModel().getSelectedItem());
+    }
+
+
+    /**
+     * Action event for deleting a product
+     * If no input is found it will display an alert, if there are parts associated it will display error message
+     * Otherwise, it displays a confirmation alert
+     * @param actionEvent
+     */
+    @FXML
+    public void onActionDeleteProduct(ActionEvent actionEvent) {
+        if (productTableView.getSelectionModel().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "You must select a product to delete!");
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+            return;
+        }
+        if (!productTableView.getSelectionModel().getSelectedItem().getAllAssociatedParts().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "The selected product has associated parts.\n" +
+                    "Disassociate the parts before deleting.");
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+            return;
+        }
+
+        Product selectedProduct = productTableView.getSelectionModel().getSelectedItem();
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Are you sure you want to delete the following product?\n\n" + selectedProduct.getName());
+        fixAlertDisplay(alert);
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            Inventory.deleteProduct(selectedProduct);
+            refreshProductTable();
+        }
+    }
+
+    /**
+     * Imports Parts and Products from a CSV or NDJSON file chosen by the user.
+     * The import runs in the background; the tables fill in as it goes, and a summary is shown once it's done.
+     * @param actionEvent
+     */
+    @FXML
+    public void onActionImport(ActionEvent actionEvent) {
+        Window window = ((Button) actionEvent.getSource()).getScene().getWindow();
+        File file = recordFileChooser("Import Inventory").showOpenDialog(window);
+        if (file == null) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return InventoryImporter.importFile(file.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((result, error) -> Platform.runLater(() -> {
+            refreshPartTable();
+            refreshProductTable();
+            Alert alert;
+            if (error != null) {
+                alert = detailedAlert(Alert.AlertType.ERROR, "The import failed.", error.toString());
+            } else if (result.getRejected() > 0 || !result.getWarnings().isEmpty()) {
+                List<String> problems = new ArrayList<>(result.getErrors());
+                problems.addAll(result.getWarnings());
+                alert = detailedAlert(Alert.AlertType.WARNING, String.format("Imported %d parts and %d products. " +
+                                "%d lines were rejected and there were %d warnings:", result.getPartsImported(),
+                        result.getProductsImported(), result.getRejected(), result.getWarnings().size()),
+                        String.join("\n", problems));
+            } else {
+                alert = new Alert(Alert.AlertType.INFORMATION, String.format("Imported %d parts and %d products.",
+                        result.getPartsImported(), result.getProductsImported()));
+            }
+            fixAlertDisplay(alert);
+            alert.show();
+        }));
+    }
+
+
+    /**
+     * Exports every Part and Product to a CSV or NDJSON file chosen by the user.
+     * @param actionEvent
+     */
+    @FXML
+    public void onActionExport(ActionEvent actionEvent) {
+        Window window = ((Button) actionEvent.getSource()).getScene().getWindow();
+        File file = recordFileChooser("Export Inventory").showSaveDialog(window);
+        if (file == null) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                InventoryExporter.exportFile(file.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                Platform.runLater(() -> {
+                    Alert alert = detailedAlert(Alert.AlertType.ERROR, "The export failed.", error.toString());
+                    fixAlertDisplay(alert);
+                    alert.show();
+                });
+            }
+        });
+    }
+
+
+    /**
+     * @param title
+     * @return a file chooser offering the formats that can be imported and exported
+     */
+    private static FileChooser recordFileChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("NDJSON", "*.ndjson", "*.jsonl", "*.json"));
+        return chooser;
+    }
+
+
+    /**
+     * Saves any outstanding Inventory changes and exits the application.
+     * @param actionEvent
+     */
+    @FXML
+    public void onActionExit(ActionEvent actionEvent) {
+        try {
+            Inventory.close();
+        } catch (IOException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Some changes could not be saved.\n\n" + e.getMessage());
+            fixAlertDisplay(alert);
+            alert.showAndWait();
+        }
+        System.exit(0);
+    }
+
+
+    /**
+     * Clears both searches and selections, so returning to the cached main screen shows every Part and Product.
+     */
+    @Override
+    public void reset() {
+        partSearch.clear();
+        productSearch.clear();
+        refreshPartTable();
+        refreshProductTable();
+        partTableView.getSelectionModel().clearSelection();
+        productTableView.getSelectionModel().clearSelection();
+    }
+
+
+    /**
+     * initalizer constuctor
+     * @param url
+     * @param resourceBundle
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        partTableView.setItems(allPartsPage);
+        partTableView.setSortPolicy(PagedList.sortPolicy());
+        productTableView.setItems(allProductsPage);
+        productTableView.setSortPolicy(PagedList.sortPolicy());
+        partIdCol.setCellValueFactory(cellValue(Part::getId));
+        productIdCol.setCellValueFactory(cellValue(Product::getId));
+        partNameCol.setCellValueFactory(cellValue(Part::getName));
+        productNameCol.setCellValueFactory(cellValue(Product::getName));
+        partInventoryCol.setCellValueFactory(cellValue(Part::getStock));
+        productInventoryCol.setCellValueFactory(cellValue(Product::getStock));
+        productBuildableCol.setCellValueFactory(cellValue(product -> Inventory.getBuildableQuantity(product.getId())));
+        partPriceCol.setCellValueFactory(cellValue(Part::getPrice));
+        productPriceCol.setCellValueFactory(cellValue(Product::getPrice));
+    }
+}
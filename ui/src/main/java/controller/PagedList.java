@@ -0,0 +1,280 @@
+package controller;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.collections.WeakListChangeListener;
+import javafx.scene.control.TableView;
+import javafx.util.Callback;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A read-only, windowed view of an ObservableList for TableViews.
+ * A TableView only ever reads the rows it is showing, so this keeps a single window of materialized rows around
+ * the most recently read position, plus a prefetch margin either side so scrolling a little doesn't reload.
+ * Reading outside the window moves it. Rows inside the window keep their identity between reads, which the
+ * source list doesn't guarantee when it materializes rows on demand.
+ *
+ * Changes to the source are passed straight through, and drop the window so stale rows are never shown.
+ *
+ * The list can also be sorted, which a TableView does through {@link #sortPolicy()}. Sorting has to read every
+ * row to compare them, but only the resulting order of source positions is kept, and the sorted rows are paged
+ * through in that order like unsorted ones. A sorted list re-sorts whenever the source changes. Clearing the sort
+ * goes back to source order.
+ *
+ * @param <T> the type of row
+ * @author Zachary Mollenhour
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+    private static final int PAGE_SIZE = 64;
+    private static final int PREFETCH = 32;
+    // Below this many rows, merging sorted halves costs more than sorting by insertion.
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private final ObservableList<? extends T> source;
+    // Held strongly here and weakly by the source, so a discarded screen doesn't stay subscribed to the Inventory.
+    private final ListChangeListener<T> sourceListener = this::sourceChanged;
+    private final List<T> window = new ArrayList<>(PAGE_SIZE + 2 * PREFETCH);
+    private int windowStart;
+    // While sorted, the source position of each row in sorted order; null when unsorted.
+    private Comparator<? super T> comparator;
+    private int[] sourceIndexes;
+
+    /**
+     * @param source the list to page through
+     */
+    public PagedList(ObservableList<? extends T> source) {
+        this.source = source;
+        source.addListener(new WeakListChangeListener<>(sourceListener));
+    }
+
+    /**
+     * A TableView sort policy that sorts a PagedList through {@link #setComparator(Comparator)}, and any other list
+     * with the TableView's default policy, so a table can switch between paged rows and plain search results.
+     * @param <T> the type of row
+     * @return the sort policy
+     */
+    public static <T> Callback<TableView<T>, Boolean> sortPolicy() {
+        return table -> {
+            if (table.getItems() instanceof PagedList) {
+                ((PagedList<T>) table.getItems()).setComparator(table.getComparator());
+                return true;
+            }
+            return TableView.DEFAULT_SORT_POLICY.call(table);
+        };
+    }
+
+    /**
+     * Sorts the rows, reporting the new order as a permutation so a TableView keeps its selection.
+     * @param newComparator the order to show the rows in, or null for the order of the source
+     */
+    public void setComparator(Comparator<? super T> newComparator) {
+        if (newComparator == null && comparator == null) {
+            return;
+        }
+        int[] previousIndexes = sourceIndexes;
+        comparator = newComparator;
+        sort();
+        int[] permutation = new int[source.size()];
+        if (sourceIndexes == null) {
+            // Back in source order, a row's new position is its source position.
+            System.arraycopy(previousIndexes, 0, permutation, 0, permutation.length);
+        } else {
+            int[] sortedPositions = new int[permutation.length];
+            for (int i = 0; i < sourceIndexes.length; i++) {
+                sortedPositions[sourceIndexes[i]] = i;
+            }
+            for (int i = 0; i < permutation.length; i++) {
+                permutation[i] = sortedPositions[previousIndexes == null ? i : previousIndexes[i]];
+            }
+        }
+        beginChange();
+        nextPermutation(0, permutation.length, permutation);
+        endChange();
+    }
+
+    /**
+     * Works out the sorted order of the source positions if there's a comparator, or goes back to source order if
+     * not. The rows read to compare are dropped once the order is known.
+     */
+    @SuppressWarnings("unchecked")
+    private void sort() {
+        window.clear();
+        windowStart = 0;
+        if (comparator == null) {
+            sourceIndexes = null;
+            return;
+        }
+        Object[] rows = source.toArray();
+        int[] order = new int[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        sort(order, new int[order.length], 0, order.length,
+                (a, b) -> comparator.compare((T) rows[a], (T) rows[b]));
+        sourceIndexes = order;
+    }
+
+    /**
+     * Sorts a range of positions by merging sorted halves, which keeps equal rows in source order.
+     */
+    private static void sort(int[] order, int[] scratch, int from, int to, IntBinaryOperator compare) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int position = order[i];
+                int j = i;
+                for (; j > from && compare.applyAsInt(order[j - 1], position) > 0; j--) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = position;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(order, scratch, from, middle, compare);
+        sort(order, scratch, middle, to, compare);
+        if (compare.applyAsInt(order[middle - 1], order[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, scratch, from, to - from);
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right == to || left < middle && compare.applyAsInt(scratch[left], scratch[right]) <= 0) {
+                order[i] = scratch[left++];
+            } else {
+                order[i] = scratch[right++];
+            }
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < windowStart || index >= windowStart + window.size()) {
+            load(index);
+        }
+        return window.get(index - windowStart);
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    /**
+     * Moves the window so that it starts a prefetch margin before the requested row.
+     * @param index
+     */
+    private void load(int index) {
+        if (index < 0 || index >= source.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + source.size());
+        }
+        window.clear();
+        windowStart = Math.max(0, index - PREFETCH);
+        int end = Math.min(source.size(), index + PAGE_SIZE + PREFETCH);
+        for (int i = windowStart; i < end; i++) {
+            window.add(source.get(sourceIndexes == null ? i : sourceIndexes[i]));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sourceChanged(ListChangeListener.Change<? extends T> change) {
+        if (sourceIndexes != null) {
+            // The changed rows may belong anywhere in the sorted order, so the whole list is replaced.
+            int[] previousIndexes = sourceIndexes;
+            List<T> previousRows = previousRows(change);
+            sort();
+            beginChange();
+            nextRemove(0, new AbstractList<T>() {
+                @Override
+                public T get(int index) {
+                    return previousRows.get(previousIndexes[index]);
+                }
+
+                @Override
+                public int size() {
+                    return previousIndexes.length;
+                }
+            });
+            nextAdd(0, sourceIndexes.length);
+            endChange();
+            return;
+        }
+        window.clear();
+        windowStart = 0;
+        beginChange();
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                int[] permutation = new int[change.getTo() - change.getFrom()];
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    permutation[i - change.getFrom()] = change.getPermutation(i);
+                }
+                nextPermutation(change.getFrom(), change.getTo(), permutation);
+            } else if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    nextUpdate(i);
+                }
+            } else {
+                if (change.wasRemoved()) {
+                    nextRemove(change.getFrom(), (List<T>) change.getRemoved());
+                }
+                if (change.wasAdded()) {
+                    nextAdd(change.getFrom(), change.getTo());
+                }
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * Reconstructs the source as it was before a change, by source position, without copying it: the rows the
+     * change left alone are read from the source, and the rest from the change itself.
+     * @param change
+     * @return the source rows before the change
+     */
+    private List<T> previousRows(ListChangeListener.Change<? extends T> change) {
+        List<List<? extends T>> segments = new ArrayList<>();
+        int position = 0;
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                segments.add(source.subList(position, change.getFrom()));
+                List<T> permuted = new ArrayList<>(change.getTo() - change.getFrom());
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    permuted.add(source.get(change.getPermutation(i)));
+                }
+                segments.add(permuted);
+                position = change.getTo();
+            } else if (!change.wasUpdated()) {
+                segments.add(source.subList(position, change.getFrom()));
+                segments.add(change.getRemoved());
+                position = change.getFrom() + change.getAddedSize();
+            }
+        }
+        change.reset();
+        segments.add(source.subList(position, source.size()));
+        int[] ends = new int[segments.size()];
+        int size = 0;
+        for (int i = 0; i < ends.length; i++) {
+            size += segments.get(i).size();
+            ends[i] = size;
+        }
+        int previousSize = size;
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                int segment = 0;
+                while (ends[segment] <= index) {
+                    segment++;
+                }
+                return segments.get(segment).get(index - (segment == 0 ? 0 : ends[segment - 1]));
+            }
+
+            @Override
+            public int size() {
+                return previousSize;
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for saving a Part or Product from its edit screen, from the user's confirmation until
+ * the main screen is back, so a recording can show a save that stalled the JavaFX Application Thread.
+ *
+ * @author Zachary Mollenhour
+ */
+@Name("ims.Save")
+@Label("Save")
+@Category({"Inventory Management System", "UI"})
+@Description("Saving a Part or Product and returning to the main screen")
+class SaveEvent extends jdk.jfr.Event {
+    @Label("Record Type")
+    @Description("Part or Product")
+    String recordType;
+
+    @Label("Record ID")
+    int recordId;
+
+    @Label("New Record")
+    boolean newRecord;
+
+    /**
+     * Ends the event and commits it if a recording wants it.
+     * @param recordType
+     * @param recordId
+     * @param newRecord
+     */
+    void end(String recordType, int recordId, boolean newRecord) {
+        end();
+        if (shouldCommit()) {
+            this.recordType = recordType;
+            this.recordId = recordId;
+            this.newRecord = newRecord;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package controller;
+
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs Inventory searches off the JavaFX Application Thread.
+ * Keystrokes are debounced, so a search only starts once typing pauses. Each new query cancels the one before
+ * it, and only the result of the latest query is ever published back to the UI, via Platform.runLater.
+ *
+ * @param <T> the type of record being searched
+ * @author Zachary Mollenhour
+ */
+public class SearchService<T> {
+    private static final long DEBOUNCE_MILLIS = 150;
+    private static final ScheduledExecutorService debouncer =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("search-debounce"));
+    private static final ExecutorService workers = Executors.newCachedThreadPool(daemonThreads("search-worker"));
+    private final Function<String, List<T>> search;
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledFuture<?> pending;
+    private volatile Future<?> running;
+
+    /**
+     * @param search the search to run for each query, which must be safe to call from a background thread
+     */
+    public SearchService(Function<String, List<T>> search) {
+        this.search = search;
+    }
+
+    /**
+     * Schedules a search, replacing any search that is waiting or still running.
+     * This must be called from the JavaFX Application Thread, which is also where the result is delivered.
+     * @param query
+     * @param onResult receives the matches, unless a newer query has been submitted in the meantime
+     */
+    public void submit(String query, Consumer<List<T>> onResult) {
+        long current = cancel();
+        pending = debouncer.schedule(() -> {
+            if (generation.get() == current) {
+                running = workers.submit(() -> run(current, query, onResult));
+            }
+        }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels any search that is waiting or still running, so its result will never be delivered.
+     * @return the generation of the next search
+     */
+    public long cancel() {
+        long current = generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        Future<?> inFlight = running;
+        if (inFlight != null) {
+            inFlight.cancel(true);
+        }
+        return current;
+    }
+
+    private void run(long current, String query, Consumer<List<T>> onResult) {
+        if (generation.get() != current) {
+            return;
+        }
+        List<T> result = search.apply(query);
+        Platform.runLater(() -> {
+            if (generation.get() == current) {
+                onResult.accept(result);
+            }
+        });
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package controller;
+
+import javafx.collections.ObservableListBase;
+import model.ListChange;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * An observable, read-only view of Inventory records that only ever shows an immutable snapshot.
+ * The Inventory records the extent of its changes as they're made and hands them to its listeners in batches, each
+ * with the snapshot they lead to, so listeners see one change event per batch and only ever read a consistent state,
+ * whichever thread is writing to the Inventory.
+ *
+ * A view that nobody is listening to, or that nobody has read since it last dropped its snapshot, doesn't keep up
+ * with every batch. It just drops its snapshot and loads the latest one the next time it's read, since there's
+ * nobody holding on to an earlier state for a change event to be relative to.
+ *
+ * @param <T> the type of record
+ * @author Zachary Mollenhour
+ */
+class SnapshotList<T> extends ObservableListBase<T> {
+    private final Supplier<List<T>> loader;
+    private List<T> current;
+
+    /**
+     * @param loader supplies the latest snapshot
+     */
+    SnapshotList(Supplier<List<T>> loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    public T get(int index) {
+        return current().get(index);
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    /**
+     * Moves the view to a new snapshot, announcing the changes that lead to it as a single event.
+     * The view may have been loaded part way through the changes, but the rows they left alone are the same in
+     * every state in between, so the event is still right, if wider than it needs to be.
+     * @param change the changes made since the last snapshot
+     * @param snapshot the state after the changes
+     */
+    void publish(ListChange change, List<T> snapshot) {
+        List<T> previous = current;
+        if (change.isEmpty() || previous == snapshot) {
+            return;
+        }
+        if (previous == null || !hasListeners()) {
+            // Nobody is holding on to an earlier state, so the view can simply reload when it's next read.
+            current = null;
+            return;
+        }
+        current = snapshot;
+        // Everything outside the changed range is the same in both snapshots, so one replacement covers the batch.
+        int from = change.getFrom();
+        int previousTo = previous.size() - change.getUnchangedTail();
+        int to = snapshot.size() - change.getUnchangedTail();
+        if (previousTo == from && to == from) {
+            return;
+        }
+        beginChange();
+        if (previousTo > from) {
+            nextRemove(from, previous.subList(from, previousTo));
+        }
+        if (to > from) {
+            nextAdd(from, to);
+        }
+        endChange();
+    }
+
+    private List<T> current() {
+        if (current == null) {
+            current = loader.get();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,169 @@
+package ims;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.stage.Stage;
+import javafx.util.Callback;
+import model.InHouse;
+import model.Inventory;
+import model.InventoryMetrics;
+import model.Outsourced;
+import model.Product;
+import model.WriteAheadLogStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * The main application source code.
+ *
+ * @author Zachary Mollenhour
+ */
+public class Main extends Application {
+    /**
+     * Main file with source code that provides entry into application.
+     * Populates the Inventory with a couple of Parts and Products, then starts the JavaFX application.
+     * @param args
+     */
+    public static void main(String[] args) {
+
+
+        launch(args);
+    }
+
+    /**
+     * Loads a new View.
+     * This updates the stage to a new View with some size bounding. Each View is only loaded the first time it's
+     * shown; after that the same one is reused, with its controller reset if it's a ReusableView.
+     * @param stage
+     * @param view
+     */
+    public static FXMLLoader loadView(Stage stage, String view) throws IOException {
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
+        boolean cached = ViewCache.isLoaded(view);
+        FXMLLoader loader = ViewCache.get(view);
+        stage.setScene(ViewCache.scene(view));
+        stage.sizeToScene();
+        stage.show();
+
+        stage.setMinHeight(stage.getHeight());
+        stage.setMinWidth(stage.getWidth());
+
+        event.view = view;
+        event.cached = cached;
+        event.commit();
+        return loader;
+    }
+
+    /**
+     * Wrapper around Alert to fix sizing.
+     * @param alert alert
+     *
+     */
+    public static void fixAlertDisplay(Alert alert) {
+        alert.setResizable(true);
+        Platform.runLater(() -> alert.setResizable(false));
+    }
+
+    /**
+     * Wrapper function to create a detailed Alert.
+     * This prepares a label and expanded textarea in a typical alert dialog.
+     * @param details to get details of alert
+     * @param message message of alert
+     * @param type type of alert
+     * @return alert
+     */
+    public static Alert detailedAlert(Alert.AlertType type, String message, String details) {
+        Alert alert = new Alert(type);
+        Label topMessage = new Label(message);
+        TextArea detailsBox = new TextArea(details);
+
+        detailsBox.setEditable(false);
+        detailsBox.setWrapText(true);
+        detailsBox.setMaxHeight(Double.MAX_VALUE);
+        GridPane.setHgrow(detailsBox, Priority.ALWAYS);
+        GridPane body = new GridPane();
+        body.add(topMessage, 0, 0);
+        body.add(detailsBox, 0, 1);
+        alert.getDialogPane().setContent(body);
+
+        return alert;
+    }
+
+    /**
+     * Builds a TableColumn cell value factory from a plain getter.
+     * Unlike PropertyValueFactory, which looks the getter up reflectively for every cell, this calls it directly.
+     * @param getter reads the column's value from a row
+     * @return cell value factory
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> cellValue(Function<S, T> getter) {
+        return cell -> new ReadOnlyObjectWrapper<>(getter.apply(cell.getValue()));
+    }
+
+    /**
+     * The main entry point for this JavaFX application.
+     * This is called after init and sets up the MainScreen View as our entry scene. The edit Views are then
+     * loaded ahead of time, once the main screen is up, unless -Dims.views.preload=false is set.
+     * @param primaryStage for view
+     */
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        InventoryMetrics.install();
+        FXMLLoader loader = loadView(primaryStage, "/view/MainScreen.fxml");
+        primaryStage.setTitle("Inventory Management System");
+        openInventory(loader.getRoot());
+        if (Boolean.parseBoolean(System.getProperty("ims.views.preload", "true"))) {
+            ViewCache.preload("/view/EditPartView.fxml", "/view/EditProductView.fxml");
+        }
+    }
+
+    /**
+     * Flushes the Inventory to disk when the application closes.
+     */
+    @Override
+    public void stop() throws IOException {
+        Inventory.close();
+    }
+
+    /**
+     * Loads the Inventory from its data directory and keeps it persisted there.
+     * The directory can be changed with the ims.data.dir system property. The catalog is loaded in the
+     * background while the main screen is already showing, and the screen is disabled until it is ready. If it
+     * can't be read, the user is told and the application carries on with an empty, unsaved Inventory.
+     * @param mainScreen the root of the main screen
+     */
+    private static void openInventory(Parent mainScreen) {
+        Path dataDir = Paths.get(System.getProperty("ims.data.dir",
+                Paths.get(System.getProperty("user.home"), ".inventory-management").toString()));
+        mainScreen.setDisable(true);
+        CompletableFuture<Void> loading;
+        try {
+            loading = Inventory.openAsync(new WriteAheadLogStore(dataDir));
+        } catch (IOException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((loaded, error) -> Platform.runLater(() -> {
+            mainScreen.setDisable(false);
+            if (error != null) {
+                Alert alert = detailedAlert(Alert.AlertType.ERROR, "The saved inventory could not be loaded. " +
+                        "Changes made in this session will not be saved.", error.toString());
+                fixAlertDisplay(alert);
+                alert.showAndWait();
+            }
+        }));
+    }
+}
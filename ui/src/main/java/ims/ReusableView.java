@@ -0,0 +1,15 @@
+package ims;
+
+/**
+ * A controller whose view is loaded once and shown again each time it's navigated to.
+ * The controller is reset before every showing after the first, so it must put itself back the way it was just
+ * after the FXML was loaded, forgetting whatever the user did with it last time.
+ *
+ * @author Zachary Mollenhour
+ */
+public interface ReusableView {
+    /**
+     * Returns the view to the state it was loaded in.
+     */
+    void reset();
+}
@@ -0,0 +1,98 @@
+package ims;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Each FXML view, loaded once and kept with its Scene for as long as the application runs.
+ * Parsing FXML and building a Scene takes a noticeable moment, so navigating back to a view reuses the one built
+ * before and just resets its controller. Only used from the JavaFX Application Thread, so it isn't synchronized.
+ *
+ * @author Zachary Mollenhour
+ */
+class ViewCache {
+    private static final Map<String, Entry> views = new HashMap<>();
+
+    /**
+     * @param view
+     * @return whether the view has already been loaded
+     */
+    static boolean isLoaded(String view) {
+        return views.containsKey(view);
+    }
+
+    /**
+     * Gets a view, loading it the first time and resetting its controller every time after.
+     * @param view
+     * @return the view's loader, holding its root and controller
+     * @throws IOException
+     */
+    static FXMLLoader get(String view) throws IOException {
+        Entry entry = views.get(view);
+        if (entry == null) {
+            return load(view).loader;
+        }
+        if (entry.loader.getController() instanceof ReusableView) {
+            ((ReusableView) entry.loader.getController()).reset();
+        }
+        return entry.loader;
+    }
+
+    /**
+     * @param view
+     * @return the Scene built for the view
+     */
+    static Scene scene(String view) {
+        return views.get(view).scene;
+    }
+
+    /**
+     * Loads any of the given views not loaded yet, one at a time in later pulses, so showing the first screen
+     * isn't held up and the first navigation to each view doesn't pay for loading it.
+     * The views are built on the JavaFX Application Thread rather than a background thread, because their
+     * controllers attach to the Inventory's live observable lists as they're created.
+     * @param remaining
+     */
+    static void preload(String... remaining) {
+        if (remaining.length == 0) {
+            return;
+        }
+        Platform.runLater(() -> {
+            try {
+                if (!isLoaded(remaining[0])) {
+                    load(remaining[0]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            String[] rest = new String[remaining.length - 1];
+            System.arraycopy(remaining, 1, rest, 0, rest.length);
+            preload(rest);
+        });
+    }
+
+    private static Entry load(String view) throws IOException {
+        FXMLLoader loader = new FXMLLoader();
+        loader.setLocation(Main.class.getResource(view));
+        loader.load();
+        Entry entry = new Entry(loader, new Scene(loader.getRoot()));
+        views.put(view, entry);
+        return entry;
+    }
+
+    private static final class Entry {
+        private final FXMLLoader loader;
+        private final Scene scene;
+
+        private Entry(FXMLLoader loader, Scene scene) {
+            this.loader = loader;
+            this.scene = scene;
+        }
+    }
+}
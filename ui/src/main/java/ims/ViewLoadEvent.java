@@ -0,0 +1,26 @@
+package ims;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for loading an FXML view, or reusing a cached one, and showing it, so a recording can
+ * show a screen change that stalled the JavaFX Application Thread.
+ *
+ * @author Zachary Mollenhour
+ */
+@Name("ims.ViewLoad")
+@Label("View Load")
+@Category({"Inventory Management System", "UI"})
+@Description("Loading an FXML view and showing it on a stage")
+class ViewLoadEvent extends jdk.jfr.Event {
+    @Label("View")
+    @Description("The FXML resource loaded")
+    String view;
+
+    @Label("Cached")
+    @Description("Whether the view had been loaded before and was reused")
+    boolean cached;
+}
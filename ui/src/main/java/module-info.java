@@ -0,0 +1,15 @@
+/**
+ * The JavaFX screens for the inventory. Everything it shows comes from {@code ims.core}.
+ * @author Zachary Mollenhour
+ */
+module ims.ui {
+    requires ims.core;
+    requires javafx.controls;
+    requires javafx.fxml;
+    requires jdk.jfr;
+
+    // FXMLLoader injects @FXML fields and handlers reflectively
+    opens controller to javafx.fxml;
+    // The launcher instantiates Main reflectively
+    exports ims to javafx.graphics;
+}